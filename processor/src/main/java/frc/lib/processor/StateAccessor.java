@@ -0,0 +1,28 @@
+package frc.lib.processor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a state enum for accessor generation.
+ * <p>
+ * For an annotated enum, {@link StateAccessorProcessor} generates a class in the
+ * same package with a typed getter and setter for every primitive field, e.g.
+ * {@code anglePosition()} and {@code setAnglePosition(double)}. Values are
+ * copied from the enum constants and can be overridden per state. The class
+ * can be built over a DoubleSubsystem's values, e.g.
+ * {@code new IntakeStateValues(values(IntakeState.class))}, to share them.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface StateAccessor {
+    /**
+     * The simple name of the generated class. Defaults to the enum's name
+     * followed by {@code Values}.
+     *
+     * @return The name of the generated class.
+     */
+    String name() default "";
+}
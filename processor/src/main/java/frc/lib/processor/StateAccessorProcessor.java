@@ -0,0 +1,208 @@
+package frc.lib.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates typed, primitive-backed accessor classes for enums annotated with
+ * {@link StateAccessor}.
+ * <p>
+ * The generated class reads and writes a {@code DoubleMutable}, through
+ * slots resolved once when it is constructed, so reads and overrides are
+ * plain array accesses and a misspelled field is a compile error rather than
+ * a null at runtime. Built over a DoubleSubsystem's values, the accessors
+ * see the subsystem's hooks and overrides, and the other way round.
+ */
+@SupportedAnnotationTypes("frc.lib.processor.StateAccessor")
+public class StateAccessorProcessor extends AbstractProcessor {
+    private static final String MUTABLE = "frc.lib.util.DoubleMutable";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(StateAccessor.class)) {
+            if (element.getKind() != ElementKind.ENUM) {
+                error(element, "@StateAccessor can only be applied to enums");
+                continue;
+            }
+            try {
+                generate((TypeElement) element);
+            } catch (IOException e) {
+                error(element, "Could not write accessor: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private void generate(TypeElement enumType) throws IOException {
+        List<VariableElement> fields = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(enumType.getEnclosedElements())) {
+            if (field.getKind() != ElementKind.FIELD || field.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            if (field.getModifiers().contains(Modifier.PRIVATE)) {
+                error(field, "@StateAccessor fields must not be private");
+                return;
+            }
+            TypeKind kind = field.asType().getKind();
+            if (!kind.isPrimitive() || kind == TypeKind.CHAR) {
+                error(field, "@StateAccessor fields must be numeric or boolean primitives");
+                return;
+            }
+            fields.add(field);
+        }
+
+        String packageName = processingEnv.getElementUtils().getPackageOf(enumType).getQualifiedName().toString();
+        String enumName = enumType.getQualifiedName().toString();
+        String name = enumType.getAnnotation(StateAccessor.class).name();
+        String className = name.isEmpty() ? enumType.getSimpleName() + "Values" : name;
+        String valuesType = MUTABLE + "<" + enumName + ">";
+
+        try (PrintWriter out = new PrintWriter(processingEnv.getFiler()
+                .createSourceFile(packageName.isEmpty() ? className : packageName + "." + className, enumType)
+                .openWriter())) {
+            if (!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            out.println("/**");
+            out.println(" * Typed, mutable values for {@link " + enumName + "}, stored in a");
+            out.println(" * {@link " + MUTABLE + "}.");
+            out.println(" */");
+            out.println("@javax.annotation.processing.Generated(\"" + getClass().getName() + "\")");
+            out.println("public final class " + className + " {");
+            out.println("    private final " + valuesType + " values;");
+            for (VariableElement field : fields) {
+                out.println("    private final int " + field.getSimpleName() + "Slot;");
+            }
+            out.println();
+            out.println("    /**");
+            out.println("     * Constructs values of their own, with the first enum constant as the");
+            out.println("     * current state.");
+            out.println("     */");
+            out.println("    public " + className + "() {");
+            out.println("        this(new " + MUTABLE + "<>(" + enumName + ".class));");
+            out.println("    }");
+            out.println();
+            out.println("    /**");
+            out.println("     * Constructs accessors over existing values, e.g. a DoubleSubsystem's");
+            out.println("     * {@code values(" + enumType.getSimpleName() + ".class)}, so hooks and overrides made");
+            out.println("     * through either are seen by both.");
+            out.println("     *");
+            out.println("     * @param values The values.");
+            out.println("     */");
+            out.println("    public " + className + "(" + valuesType + " values) {");
+            out.println("        this.values = values;");
+            for (VariableElement field : fields) {
+                out.println("        this." + field.getSimpleName() + "Slot = values.slot(\"" + field.getSimpleName() + "\");");
+            }
+            out.println("    }");
+            out.println();
+            out.println("    /**");
+            out.println("     * Gets the values these accessors read and write.");
+            out.println("     *");
+            out.println("     * @return The values.");
+            out.println("     */");
+            out.println("    public " + valuesType + " getValues() {");
+            out.println("        return values;");
+            out.println("    }");
+            out.println();
+            out.println("    /**");
+            out.println("     * Gets the current state.");
+            out.println("     *");
+            out.println("     * @return The current state.");
+            out.println("     */");
+            out.println("    public " + enumName + " getState() {");
+            out.println("        return values.getState();");
+            out.println("    }");
+            out.println();
+            out.println("    /**");
+            out.println("     * Sets the current state.");
+            out.println("     *");
+            out.println("     * @param state The state to set.");
+            out.println("     */");
+            out.println("    public void setState(" + enumName + " state) {");
+            out.println("        values.setState(state);");
+            out.println("    }");
+            for (VariableElement field : fields) {
+                writeAccessors(out, enumName, field);
+            }
+            out.println("}");
+        }
+    }
+
+    private void writeAccessors(PrintWriter out, String enumName, VariableElement field) {
+        TypeKind kind = field.asType().getKind();
+        String type = field.asType().toString();
+        String key = field.getSimpleName().toString();
+        String slot = key + "Slot";
+        String setter = "set" + Character.toUpperCase(key.charAt(0)) + key.substring(1);
+        // Values are stored as doubles; booleans as 1 or 0.
+        String read = kind == TypeKind.BOOLEAN ? "%s != 0"
+                : kind == TypeKind.DOUBLE ? "%s" : "(" + type + ") %s";
+        String write = kind == TypeKind.BOOLEAN ? "value ? 1 : 0" : "value";
+
+        out.println();
+        out.println("    /**");
+        out.println("     * Gets {@code " + key + "} for the current state.");
+        out.println("     *");
+        out.println("     * @return The value of {@code " + key + "}.");
+        out.println("     */");
+        out.println("    public " + type + " " + key + "() {");
+        out.println("        return " + String.format(read, "values.get(" + slot + ")") + ";");
+        out.println("    }");
+        out.println();
+        out.println("    /**");
+        out.println("     * Gets {@code " + key + "} for a given state.");
+        out.println("     *");
+        out.println("     * @param state The state to read from.");
+        out.println("     * @return The value of {@code " + key + "}.");
+        out.println("     */");
+        out.println("    public " + type + " " + key + "(" + enumName + " state) {");
+        out.println("        return " + String.format(read, "values.get(state, " + slot + ")") + ";");
+        out.println("    }");
+        out.println();
+        out.println("    /**");
+        out.println("     * Overrides {@code " + key + "} for the current state.");
+        out.println("     *");
+        out.println("     * @param value The value to set.");
+        out.println("     */");
+        out.println("    public void " + setter + "(" + type + " value) {");
+        out.println("        values.set(" + slot + ", " + write + ");");
+        out.println("    }");
+        out.println();
+        out.println("    /**");
+        out.println("     * Overrides {@code " + key + "} for a given state.");
+        out.println("     *");
+        out.println("     * @param state The state to write to.");
+        out.println("     * @param value The value to set.");
+        out.println("     */");
+        out.println("    public void " + setter + "(" + enumName + " state, " + type + " value) {");
+        out.println("        values.set(state, " + slot + ", " + write + ");");
+        out.println("    }");
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,57 @@
+package frc.lib.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.hal.HAL;
+import frc.lib.motor.Motor;
+import frc.lib.motor.Motor.Control;
+
+/**
+ * Measures the cost of sending outputs through {@link Motor}, against a no-op
+ * adapter. The "changing" benchmarks send a new value every call; the
+ * "repeated" ones send the same value, exercising the duplicate suppression.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MotorBenchmark {
+    private Motor motor;
+    private double value;
+
+    @Setup
+    public void setup() {
+        HAL.initialize(500, 0);
+        NoOpMotor noOp = new NoOpMotor(1);
+        motor = Motor.custom(noOp, noOp);
+    }
+
+    @Benchmark
+    public Motor setChanging() {
+        value += 1e-3;
+        return motor.set(value);
+    }
+
+    @Benchmark
+    public Motor setRepeated() {
+        return motor.set(0.5);
+    }
+
+    @Benchmark
+    public Motor setReferenceChanging() {
+        value += 1e-3;
+        return motor.setReference(value, Control.POSITION);
+    }
+
+    @Benchmark
+    public Motor setReferenceRepeated() {
+        return motor.setReference(10, Control.POSITION);
+    }
+}
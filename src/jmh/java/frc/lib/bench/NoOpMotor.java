@@ -0,0 +1,82 @@
+package frc.lib.bench;
+
+import edu.wpi.first.wpilibj.motorcontrol.MotorController;
+import frc.lib.motor.DeviceStats;
+import frc.lib.motor.Motor.Control;
+import frc.lib.motor.MotorAdapter;
+import frc.lib.motor.MotorConfig;
+
+/**
+ * A motor controller and adapter that does nothing, so benchmarks measure only
+ * the library's own overhead. Outputs are stored in fields so the JIT can't
+ * remove the calls.
+ */
+public class NoOpMotor implements MotorController, MotorAdapter {
+    private final DeviceStats stats;
+    private double output;
+    private double reference;
+    private boolean inverted;
+
+    public NoOpMotor(int id) {
+        this.stats = new DeviceStats("bench", id, "NoOp");
+    }
+
+    public void set(double speed) {
+        output = speed;
+    }
+
+    public void setVoltage(double voltage) {
+        output = voltage;
+    }
+
+    public double get() {
+        return output;
+    }
+
+    public void setInverted(boolean isInverted) {
+        inverted = isInverted;
+    }
+
+    public boolean getInverted() {
+        return inverted;
+    }
+
+    public void disable() {
+        output = 0;
+    }
+
+    public void stopMotor() {
+        output = 0;
+    }
+
+    public void resetEncoder() {
+    }
+
+    public MotorConfig applyConfig(MotorConfig changes) {
+        return changes;
+    }
+
+    public void setReference(double reference, Control controlType, int slot, double feedforward) {
+        this.reference = reference + feedforward;
+    }
+
+    public double getPosition() {
+        return reference;
+    }
+
+    public double getVelocity() {
+        return 0;
+    }
+
+    public double getVoltage() {
+        return output;
+    }
+
+    public boolean isInverted() {
+        return inverted;
+    }
+
+    public DeviceStats getStats() {
+        return stats;
+    }
+}
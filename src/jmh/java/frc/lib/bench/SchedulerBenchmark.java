@@ -0,0 +1,130 @@
+package frc.lib.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.InstantCommand;
+import edu.wpi.first.wpilibj2.command.button.Trigger;
+import frc.lib.command.ShortCommand;
+import frc.lib.motor.Motor;
+import frc.lib.subsystem.Subsystem;
+
+/**
+ * Measures one CommandScheduler loop as the robot grows: N subsystems, each
+ * with M state enums and K motors on no-op adapters. Commands are bound to
+ * triggers the way RobotContainer binds them to buttons, and fire every
+ * {@value #TRIGGER_PERIOD} loops, so state changes, command scheduling and
+ * command completion are all part of the measured loop. With the GC profiler,
+ * the allocation per loop shows as gc.alloc.rate.norm.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SchedulerBenchmark {
+    private static final int TRIGGER_PERIOD = 25;
+
+    @Param({"1", "4", "16", "64"})
+    public int subsystems;
+
+    @Param({"1", "2", "4", "8"})
+    public int statesPerSubsystem;
+
+    @Param({"1", "2", "4"})
+    public int motorsPerSubsystem;
+
+    private CommandScheduler scheduler;
+    private long loop;
+
+    /**
+     * A subsystem driving each of its motors from the state values of its
+     * enums, like the robot's subsystems do.
+     */
+    static class SyntheticSubsystem extends Subsystem<Double> {
+        private final Class<? extends Enum<?>>[] stateClasses;
+        private final Motor[] motors;
+
+        SyntheticSubsystem(Class<? extends Enum<?>>[] stateClasses, int motorCount, int firstId) {
+            super(stateClasses);
+            this.stateClasses = stateClasses;
+            this.motors = new Motor[motorCount];
+            for (int i = 0; i < motorCount; i++) {
+                NoOpMotor noOp = new NoOpMotor(firstId + i);
+                motors[i] = Motor.custom(noOp, noOp);
+            }
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        void setAll(int ordinal) {
+            for (Class<? extends Enum<?>> stateClass : stateClasses) {
+                setState((Enum) stateClass.getEnumConstants()[ordinal]);
+            }
+        }
+
+        boolean isAtTarget() {
+            for (int i = 0; i < motors.length; i++) {
+                Class<? extends Enum<?>> stateClass = stateClasses[i % stateClasses.length];
+                if (!motors[i].isAtTarget(getStateValue(stateClass, "position"))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        protected void updateMotors() {
+            for (int i = 0; i < motors.length; i++) {
+                Class<? extends Enum<?>> stateClass = stateClasses[i % stateClasses.length];
+                if (i % 2 == 0) {
+                    motors[i].setReference(getStateValue(stateClass, "position"));
+                } else {
+                    motors[i].set(getStateValue(stateClass, "speed"));
+                }
+            }
+        }
+    }
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        HAL.initialize(500, 0);
+        scheduler = CommandScheduler.getInstance();
+        scheduler.cancelAll();
+        scheduler.unregisterAllSubsystems();
+        scheduler.getDefaultButtonLoop().clear();
+
+        Class<? extends Enum<?>>[] stateClasses = new Class[statesPerSubsystem];
+        System.arraycopy(SyntheticStates.CLASSES, 0, stateClasses, 0, statesPerSubsystem);
+
+        for (int n = 0; n < subsystems; n++) {
+            SyntheticSubsystem subsystem = new SyntheticSubsystem(stateClasses, motorsPerSubsystem, n * motorsPerSubsystem);
+            int offset = n % TRIGGER_PERIOD;
+            new Trigger(() -> (loop + offset) % TRIGGER_PERIOD == 0)
+                    .onTrue(new ShortCommand(() -> subsystem.setAll(1), subsystem::isAtTarget, subsystem));
+            new Trigger(() -> (loop + offset) % TRIGGER_PERIOD == TRIGGER_PERIOD / 2)
+                    .onTrue(new InstantCommand(() -> subsystem.setAll(2), subsystem));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        scheduler.cancelAll();
+        scheduler.unregisterAllSubsystems();
+        scheduler.getDefaultButtonLoop().clear();
+    }
+
+    @Benchmark
+    public void schedulerRun() {
+        loop++;
+        scheduler.run();
+    }
+}
@@ -0,0 +1,94 @@
+package frc.lib.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.hal.HAL;
+import frc.lib.subsystem.DoubleSubsystem;
+import frc.lib.subsystem.Subsystem;
+import frc.lib.util.Mutable;
+import frc.robot.IntakeStateValues;
+import frc.robot.Constants.IntakeConstants.IntakeState;
+
+/**
+ * Measures state value access on {@link Subsystem}, {@link DoubleSubsystem} and
+ * its generated accessors, and building Mutables from an enum.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StateBenchmark {
+    private BenchSubsystem subsystem;
+    private BenchDoubleSubsystem doubleSubsystem;
+    private int feederSlot;
+    private IntakeStateValues accessors;
+    private double value;
+
+    static class BenchSubsystem extends Subsystem<Double> {
+        BenchSubsystem() {
+            super(IntakeState.class);
+        }
+
+        protected void updateMotors() {
+        }
+    }
+
+    static class BenchDoubleSubsystem extends DoubleSubsystem {
+        BenchDoubleSubsystem() {
+            super(IntakeState.class);
+        }
+
+        protected void updateMotors() {
+        }
+    }
+
+    @Setup
+    public void setup() {
+        HAL.initialize(500, 0);
+        subsystem = new BenchSubsystem();
+        subsystem.setState(IntakeState.INTAKE);
+        doubleSubsystem = new BenchDoubleSubsystem();
+        doubleSubsystem.setState(IntakeState.INTAKE);
+        feederSlot = doubleSubsystem.slot(IntakeState.class, "feederSpeed");
+        accessors = new IntakeStateValues(doubleSubsystem.values(IntakeState.class));
+    }
+
+    @Benchmark
+    public Double getStateValue() {
+        return subsystem.getStateValue(IntakeState.class, "feederSpeed");
+    }
+
+    @Benchmark
+    public void modifyStateValue() {
+        value += 1e-3;
+        subsystem.modifyStateValue(IntakeState.class, "feederSpeed", value);
+    }
+
+    @Benchmark
+    public double getStateValueBySlot() {
+        return doubleSubsystem.getStateValue(IntakeState.class, feederSlot);
+    }
+
+    @Benchmark
+    public void modifyStateValueBySlot() {
+        value += 1e-3;
+        doubleSubsystem.modifyStateValue(IntakeState.class, feederSlot, value);
+    }
+
+    @Benchmark
+    public double getStateValueByAccessor() {
+        return accessors.feederSpeed();
+    }
+
+    @Benchmark
+    public Mutable<Double> translate() {
+        return Subsystem.translate(IntakeState.class);
+    }
+}
@@ -0,0 +1,128 @@
+package frc.lib.bench;
+
+/**
+ * Synthetic state enums for scaling benchmarks, all with the same fields.
+ */
+public final class SyntheticStates {
+    /**
+     * Every synthetic enum class, so benchmarks can take the first M.
+     */
+    @SuppressWarnings("unchecked")
+    public static final Class<? extends Enum<?>>[] CLASSES = new Class[] {
+        State0.class, State1.class, State2.class, State3.class, State4.class, State5.class, State6.class, State7.class
+    };
+
+    private SyntheticStates() {}
+
+    public enum State0 {
+        A(0.0, 0.0, 0.0),
+        B(1.0, 10.0, 0.5),
+        C(-1.0, -10.0, -0.5);
+
+        public final double position, velocity, speed;
+
+        State0(double position, double velocity, double speed) {
+            this.position = position;
+            this.velocity = velocity;
+            this.speed = speed;
+        }
+    }
+
+    public enum State1 {
+        A(0.0, 0.0, 0.0),
+        B(2.0, 20.0, 0.5),
+        C(-2.0, -20.0, -0.5);
+
+        public final double position, velocity, speed;
+
+        State1(double position, double velocity, double speed) {
+            this.position = position;
+            this.velocity = velocity;
+            this.speed = speed;
+        }
+    }
+
+    public enum State2 {
+        A(0.0, 0.0, 0.0),
+        B(3.0, 30.0, 0.5),
+        C(-3.0, -30.0, -0.5);
+
+        public final double position, velocity, speed;
+
+        State2(double position, double velocity, double speed) {
+            this.position = position;
+            this.velocity = velocity;
+            this.speed = speed;
+        }
+    }
+
+    public enum State3 {
+        A(0.0, 0.0, 0.0),
+        B(4.0, 40.0, 0.5),
+        C(-4.0, -40.0, -0.5);
+
+        public final double position, velocity, speed;
+
+        State3(double position, double velocity, double speed) {
+            this.position = position;
+            this.velocity = velocity;
+            this.speed = speed;
+        }
+    }
+
+    public enum State4 {
+        A(0.0, 0.0, 0.0),
+        B(5.0, 50.0, 0.5),
+        C(-5.0, -50.0, -0.5);
+
+        public final double position, velocity, speed;
+
+        State4(double position, double velocity, double speed) {
+            this.position = position;
+            this.velocity = velocity;
+            this.speed = speed;
+        }
+    }
+
+    public enum State5 {
+        A(0.0, 0.0, 0.0),
+        B(6.0, 60.0, 0.5),
+        C(-6.0, -60.0, -0.5);
+
+        public final double position, velocity, speed;
+
+        State5(double position, double velocity, double speed) {
+            this.position = position;
+            this.velocity = velocity;
+            this.speed = speed;
+        }
+    }
+
+    public enum State6 {
+        A(0.0, 0.0, 0.0),
+        B(7.0, 70.0, 0.5),
+        C(-7.0, -70.0, -0.5);
+
+        public final double position, velocity, speed;
+
+        State6(double position, double velocity, double speed) {
+            this.position = position;
+            this.velocity = velocity;
+            this.speed = speed;
+        }
+    }
+
+    public enum State7 {
+        A(0.0, 0.0, 0.0),
+        B(8.0, 80.0, 0.5),
+        C(-8.0, -80.0, -0.5);
+
+        public final double position, velocity, speed;
+
+        State7(double position, double velocity, double speed) {
+            this.position = position;
+            this.velocity = velocity;
+            this.speed = speed;
+        }
+    }
+}
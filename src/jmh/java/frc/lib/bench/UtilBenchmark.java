@@ -0,0 +1,62 @@
+package frc.lib.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.math.controller.PIDController;
+import frc.lib.util.Mutable;
+import frc.lib.util.PID;
+import frc.lib.util.SoftwarePID;
+
+/**
+ * Measures {@link Mutable.Instance} access and PID controller creation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UtilBenchmark {
+    private Mutable.Instance<Double> instance;
+    private PID pid;
+    private SoftwarePID softwarePID;
+    private double value;
+
+    @Setup
+    public void setup() {
+        instance = new Mutable.Builder<Double>("INTAKE")
+                .with("intakeSpeed", 1.0)
+                .with("feederSpeed", 0.5)
+                .with("anglePosition", 0.0)
+                .build();
+        pid = new PID(0.1, 0.01, 0.001);
+        softwarePID = new SoftwarePID(pid, -1, 1);
+    }
+
+    @Benchmark
+    public Double instanceGet() {
+        return instance.get("feederSpeed");
+    }
+
+    @Benchmark
+    public void instanceSet() {
+        value += 1e-3;
+        instance.set("feederSpeed", value);
+    }
+
+    @Benchmark
+    public PIDController toPIDController() {
+        return pid.toPIDController();
+    }
+
+    @Benchmark
+    public double softwarePIDCalculate() {
+        value += 1e-3;
+        return softwarePID.calculate(value, 1);
+    }
+}
@@ -0,0 +1,209 @@
+package frc.lib.motor;
+
+import java.util.Arrays;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Threads;
+import frc.lib.telemetry.Telemetry;
+
+/**
+ * Runs the outputs and software PID loops of registered motors on a dedicated,
+ * faster thread than the main robot loop.
+ * <p>
+ * Once a motor is registered, its outputs on the main thread only hand the
+ * latest command to this thread, which refreshes the motor's signals and sends
+ * the output or runs the controller at its own rate. Loop jitter and overruns
+ * are published under "control thread" in the SmartDashboard table.
+ */
+public class ControlThread {
+    private final String name;
+    private final double period;
+    private final long periodMicros;
+    private final Notifier notifier;
+
+    private volatile Motor[] motors = new Motor[0];
+    private volatile Thread thread;
+    private volatile int priority;
+
+    private long lastStart;
+    private long ticks;
+    private volatile long overruns;
+    private volatile long maxJitterMicros;
+    private volatile double meanJitterMicros;
+    private volatile long lastDurationMicros;
+
+    private final Telemetry.DoubleEntry overrunEntry;
+    private final Telemetry.DoubleEntry maxJitterEntry;
+    private final Telemetry.DoubleEntry meanJitterEntry;
+    private final Telemetry.DoubleEntry durationEntry;
+
+    /**
+     * Creates a control thread. It does not run until {@link #start()} is
+     * called.
+     *
+     * @param name The name of the thread, used for telemetry.
+     * @param hz   The loop rate, in hertz (e.g. 200 to 1000).
+     */
+    public ControlThread(String name, double hz) {
+        this.name = name;
+        this.period = 1.0 / hz;
+        this.periodMicros = (long) (period * 1e6);
+        this.notifier = new Notifier(this::run);
+        notifier.setName(name);
+
+        String prefix = "control thread " + name + " ";
+        this.overrunEntry = Telemetry.doubleEntry(prefix + "overruns");
+        this.maxJitterEntry = Telemetry.doubleEntry(prefix + "max jitter us");
+        this.meanJitterEntry = Telemetry.doubleEntry(prefix + "mean jitter us").withTolerance(1);
+        this.durationEntry = Telemetry.doubleEntry(prefix + "loop time us").withTolerance(5);
+    }
+
+    /**
+     * Registers a motor whose software PID should run on this thread. Usually
+     * called through {@link Motor#runOnControlThread(ControlThread)}.
+     *
+     * @param motor The motor.
+     */
+    synchronized void register(Motor motor) {
+        Motor[] current = motors;
+        if (Arrays.asList(current).contains(motor)) {
+            return;
+        }
+        Motor[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = motor;
+        motors = updated;
+    }
+
+    /**
+     * Gets the loop period.
+     *
+     * @return The period, in seconds.
+     */
+    public double getPeriod() {
+        return period;
+    }
+
+    /**
+     * Starts the thread.
+     *
+     * @return The thread, allowing for method chaining.
+     */
+    public ControlThread start() {
+        notifier.startPeriodic(period);
+        return this;
+    }
+
+    /**
+     * Starts the thread at a raised (SCHED_FIFO) priority, so other robot code
+     * can't delay its loops. Both the thread running the loops and the HAL
+     * thread that wakes it are raised; the HAL thread is shared by every
+     * Notifier. This reduces jitter but gives no timing guarantee: the loops
+     * still share the CPU, the garbage collector and the CAN bus.
+     *
+     * @param priority The priority, 1 to 99.
+     * @return The thread, allowing for method chaining.
+     */
+    public ControlThread startRealTime(int priority) {
+        this.priority = priority;
+        Notifier.setHALThreadPriority(true, priority);
+        return start();
+    }
+
+    /**
+     * Stops the thread.
+     */
+    public void stop() {
+        notifier.stop();
+    }
+
+    /**
+     * Checks whether the caller is this thread.
+     *
+     * @return Whether the current thread runs this thread's loops.
+     */
+    boolean isCurrentThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * Gets the number of loops that took longer than the period.
+     *
+     * @return The number of overruns.
+     */
+    public long getOverruns() {
+        return overruns;
+    }
+
+    /**
+     * Gets the largest difference seen between the actual and intended time
+     * between loops.
+     *
+     * @return The maximum jitter, in microseconds.
+     */
+    public long getMaxJitterMicros() {
+        return maxJitterMicros;
+    }
+
+    /**
+     * Gets the average difference between the actual and intended time between
+     * loops (exponentially weighted).
+     *
+     * @return The mean jitter, in microseconds.
+     */
+    public double getMeanJitterMicros() {
+        return meanJitterMicros;
+    }
+
+    /**
+     * Gets how long the last loop took.
+     *
+     * @return The last loop time, in microseconds.
+     */
+    public long getLastDurationMicros() {
+        return lastDurationMicros;
+    }
+
+    private void run() {
+        if (thread == null) {
+            thread = Thread.currentThread();
+            if (priority > 0 && !Threads.setCurrentThreadPriority(true, priority)) {
+                DriverStation.reportWarning("Could not raise the priority of " + this, false);
+            }
+        }
+        long start = RobotController.getFPGATime();
+        if (lastStart != 0) {
+            long jitter = Math.abs(start - lastStart - periodMicros);
+            if (jitter > maxJitterMicros) {
+                maxJitterMicros = jitter;
+            }
+            meanJitterMicros += (jitter - meanJitterMicros) * 0.01;
+        }
+        lastStart = start;
+
+        Motor[] current = motors;
+        for (int i = 0; i < current.length; i++) {
+            current[i].updateSoftwareLoop();
+        }
+
+        long duration = RobotController.getFPGATime() - start;
+        lastDurationMicros = duration;
+        if (duration > periodMicros) {
+            overruns++;
+        }
+
+        // Publish about once a second.
+        if (++ticks % Math.max(1, (long) (1 / period)) == 0) {
+            overrunEntry.set(overruns);
+            maxJitterEntry.set(maxJitterMicros);
+            meanJitterEntry.set(meanJitterMicros);
+            durationEntry.set(duration);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ControlThread(" + name + ", " + (1 / period) + " Hz)";
+    }
+}
@@ -0,0 +1,302 @@
+package frc.lib.motor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import frc.lib.motor.MotorConfig.Setting;
+import frc.lib.telemetry.Telemetry;
+
+/**
+ * Brings motor controllers up concurrently at robot startup.
+ * <p>
+ * Between {@link #begin()} and {@link #finish()}, the blocking calls a
+ * {@link Motor} makes to its device while being set up (the adapter's
+ * initialization, config applies and status frame settings) are queued on a
+ * small thread pool instead of running on the main thread. Each device's
+ * steps run in order, but different devices are set up at the same time, so
+ * robotInit takes about as long as the slowest device instead of the sum of
+ * all of them. {@link #finish()} queues a read-back of every device's config,
+ * compared against every setting requested, so rejected settings show up as
+ * mismatches. Readiness is polled with
+ * {@link #isReady()} while disabled, which publishes it under "startup ready"
+ * in the SmartDashboard table, along with a timeline of each device's steps
+ * once every device is ready. {@link #awaitReady(double)} is a last, short
+ * wait at enable.
+ * <p>
+ * Outside of startup, or for devices created without begin(), every call runs
+ * on the calling thread as before, except for config applied with
+ * {@link Motor#configureAsync}, which keeps using the pool once it exists.
+ */
+public final class DeviceStartup {
+    private static final int THREADS = 6;
+    private static final double VERIFY_TOLERANCE = 1e-4;
+
+    private static final List<Device> devices = new ArrayList<>();
+    private static final Telemetry.StringEntry timelineEntry = Telemetry.stringEntry("startup timeline");
+    private static final Telemetry.BooleanEntry readyEntry = Telemetry.booleanEntry("startup ready");
+
+    private static ExecutorService executor;
+    private static volatile boolean active;
+    private static long beginNanos;
+    private static boolean reported;
+
+    private DeviceStartup() {}
+
+    /**
+     * Starts queuing device setup. Call first in robotInit, before any motor
+     * is created.
+     */
+    public static synchronized void begin() {
+        if (active) {
+            return;
+        }
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(THREADS, runnable -> {
+                Thread thread = new Thread(runnable, "device startup");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        beginNanos = System.nanoTime();
+        reported = false;
+        active = true;
+    }
+
+    /**
+     * Stops queuing and queues a config read-back for every device set up
+     * since {@link #begin()}. Returns without waiting; call at the end of
+     * robotInit.
+     */
+    public static synchronized void finish() {
+        if (!active) {
+            return;
+        }
+        active = false;
+        for (Device device : devices) {
+            if (device.queued) {
+                // Read the requested settings once the queued applies have
+                // run, so ones the device rejected show up as mismatches.
+                Motor motor = device.motor;
+                MotorAdapter adapter = motor.getAdapter();
+                device.enqueue("verify", () -> verify(adapter, motor.getRequestedConfig()), true);
+            }
+        }
+    }
+
+    /**
+     * Waits for every device to finish setting up, then publishes the
+     * timeline. This blocks the robot loop, so only wait briefly, e.g. a few
+     * milliseconds in autonomousInit and teleopInit, and poll
+     * {@link #isReady()} while disabled instead.
+     *
+     * @param timeoutSeconds The most time to wait, in seconds.
+     * @return Whether every device is ready.
+     */
+    public static boolean awaitReady(double timeoutSeconds) {
+        CompletableFuture<?> all;
+        synchronized (DeviceStartup.class) {
+            all = CompletableFuture.allOf(devices.stream().map(device -> device.tail)
+                    .toArray(CompletableFuture[]::new));
+        }
+        try {
+            all.get((long) (timeoutSeconds * 1e9), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            readyEntry.set(false);
+            timelineEntry.set(getTimeline());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            // Steps catch their own failures, so this doesn't happen.
+        }
+        report();
+        return true;
+    }
+
+    /**
+     * Gets whether every device has finished setting up, without waiting, and
+     * publishes it. Call from disabledPeriodic.
+     *
+     * @return Whether every device is ready.
+     */
+    public static synchronized boolean isReady() {
+        for (Device device : devices) {
+            if (!device.tail.isDone()) {
+                readyEntry.set(false);
+                return false;
+            }
+        }
+        report();
+        return true;
+    }
+
+    /**
+     * Gets the startup timeline: each device's steps, with their start and end
+     * times in milliseconds since {@link #begin()}, and any failures.
+     *
+     * @return The timeline, one device per line.
+     */
+    public static synchronized String getTimeline() {
+        StringBuilder builder = new StringBuilder();
+        for (Device device : devices) {
+            if (device.hasTimeline()) {
+                builder.append(device).append('\n');
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Creates the startup queue for a motor's device.
+     *
+     * @param motor The motor.
+     * @param stats The device's stats, used to name it and record failures.
+     * @return The queue.
+     */
+    static synchronized Device device(Motor motor, DeviceStats stats) {
+        Device device = new Device(motor, stats);
+        devices.add(device);
+        return device;
+    }
+
+    /**
+     * Forgets every device. Called when a {@link frc.lib.sim.SimHarness}
+     * closes, so the next robot only waits for its own devices.
+     */
+    public static synchronized void removeAll() {
+        devices.clear();
+    }
+
+    private static synchronized void report() {
+        if (reported) {
+            return;
+        }
+        reported = true;
+        readyEntry.set(true);
+        timelineEntry.set(getTimeline());
+    }
+
+    private static String verify(MotorAdapter adapter, MotorConfig expected) {
+        MotorConfig actual = adapter.readConfig();
+        if (actual == null) {
+            return "not supported";
+        }
+        StringBuilder mismatches = new StringBuilder();
+        for (Setting setting : Setting.values()) {
+            if (!expected.has(setting) || !actual.has(setting)) {
+                continue;
+            }
+            double want = expected.get(setting);
+            double got = actual.get(setting);
+            if (Math.abs(want - got) > VERIFY_TOLERANCE * Math.max(1, Math.abs(want))) {
+                mismatches.append(' ').append(setting).append(' ').append(got).append(" != ").append(want);
+            }
+        }
+        if (mismatches.length() > 0) {
+            throw new IllegalStateException("mismatch:" + mismatches);
+        }
+        return "ok";
+    }
+
+    /**
+     * A setup step, returning a result to show in the timeline or null for
+     * none.
+     */
+    interface Step {
+        String run() throws Exception;
+    }
+
+    /**
+     * One device's queue of setup steps.
+     */
+    static final class Device {
+        private final Motor motor;
+        private final DeviceStats stats;
+        private final List<String> timeline = new ArrayList<>();
+        private volatile CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+        private boolean queued;
+
+        private Device(Motor motor, DeviceStats stats) {
+            this.motor = motor;
+            this.stats = stats;
+        }
+
+        /**
+         * Runs a setup step: queued behind the device's earlier steps during
+         * startup (or while any are still running), otherwise right away.
+         *
+         * @param name   The step's name in the timeline.
+         * @param action The step.
+         */
+        void run(String name, Runnable action) {
+            if (!active && tail.isDone()) {
+                action.run();
+                return;
+            }
+            enqueue(name, () -> {
+                action.run();
+                return null;
+            }, active);
+        }
+
+        /**
+         * Runs a step off the calling thread, queued behind the device's
+         * earlier steps, if the startup threads exist (i.e. on the robot);
+         * otherwise runs it like {@link #run}. Steps run after startup are
+         * not added to the timeline.
+         *
+         * @param name   The step's name.
+         * @param action The step.
+         */
+        void runAsync(String name, Runnable action) {
+            if (executor == null) {
+                run(name, action);
+                return;
+            }
+            enqueue(name, () -> {
+                action.run();
+                return null;
+            }, active);
+        }
+
+        private synchronized void enqueue(String name, Step step, boolean record) {
+            queued = true;
+            tail = tail.thenRunAsync(() -> runStep(name, step, record), executor);
+        }
+
+        private void runStep(String name, Step step, boolean record) {
+            long start = System.nanoTime();
+            String result;
+            try {
+                result = step.run();
+            } catch (Exception e) {
+                stats.recordError(record ? "STARTUP_FAILED" : "ASYNC_FAILED");
+                result = "failed (" + e.getMessage() + ")";
+            }
+            if (!record) {
+                return;
+            }
+            long end = System.nanoTime();
+            String entry = String.format("%s %.1f-%.1f ms", name, (start - beginNanos) / 1e6, (end - beginNanos) / 1e6);
+            synchronized (this) {
+                timeline.add(result == null ? entry : entry + " " + result);
+            }
+        }
+
+        private synchronized boolean hasTimeline() {
+            return !timeline.isEmpty();
+        }
+
+        @Override
+        public synchronized String toString() {
+            return stats.getType() + " " + stats.getBus() + " " + stats.getId() + ": " + String.join(", ", timeline);
+        }
+    }
+}
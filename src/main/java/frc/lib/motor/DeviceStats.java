@@ -0,0 +1,307 @@
+package frc.lib.motor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.wpi.first.wpilibj.RobotController;
+import frc.lib.telemetry.Telemetry;
+import frc.lib.util.Histogram;
+
+/**
+ * CAN traffic counters and latency histograms for one device, tagged by bus
+ * and CAN ID.
+ * <p>
+ * {@link Motor} records how many control writes, status reads and config
+ * applies it makes and how long each blocks; adapters record the error codes
+ * the vendor libraries return. Every instance is registered on creation, so
+ * {@link #all()} lists every device on the robot and {@link #publishAll()}
+ * publishes a summary of each under "CAN" in the SmartDashboard table.
+ */
+public class DeviceStats {
+    private static final String DEFAULT_BUS = "rio";
+    private static final long PUBLISH_INTERVAL_MICROS = 1_000_000;
+    private static final List<DeviceStats> registry = new ArrayList<>();
+    private static volatile DeviceStats[] devices = new DeviceStats[0];
+    private static long lastPublishTime;
+
+    private final String bus;
+    private final int id;
+    private final String type;
+
+    private long writes;
+    private long reads;
+    private long configs;
+    private long errors;
+    private final Histogram writeLatency = new Histogram();
+    private final Histogram readLatency = new Histogram();
+    private final Histogram configLatency = new Histogram();
+    private final Map<String, Long> errorCounts = new HashMap<>();
+    private String lastError = "";
+
+    private long publishedWrites;
+    private long publishedReads;
+    private Telemetry.DoubleEntry writeRateEntry;
+    private Telemetry.DoubleEntry readRateEntry;
+    private Telemetry.DoubleEntry configEntry;
+    private Telemetry.DoubleEntry errorEntry;
+    private Telemetry.DoubleEntry writeP99Entry;
+    private Telemetry.DoubleEntry readP99Entry;
+    private Telemetry.DoubleEntry configMaxEntry;
+    private Telemetry.StringEntry lastErrorEntry;
+
+    /**
+     * Creates and registers the stats for a device.
+     *
+     * @param bus  The CAN bus name; null or empty means the roboRIO's bus.
+     * @param id   The CAN ID.
+     * @param type The device type, e.g. "TalonFX".
+     */
+    public DeviceStats(String bus, int id, String type) {
+        this.bus = bus == null || bus.isEmpty() ? DEFAULT_BUS : bus;
+        this.id = id;
+        this.type = type;
+        synchronized (DeviceStats.class) {
+            registry.add(this);
+            devices = registry.toArray(new DeviceStats[0]);
+        }
+    }
+
+    /**
+     * Forgets every device's stats, so they are no longer published. Called
+     * when a {@link frc.lib.sim.SimHarness} closes, so the next robot only
+     * publishes its own devices.
+     */
+    public static synchronized void removeAll() {
+        registry.clear();
+        devices = new DeviceStats[0];
+    }
+
+    /**
+     * Gets the stats of every device created so far.
+     *
+     * @return The stats, in creation order.
+     */
+    public static List<DeviceStats> all() {
+        return List.of(devices);
+    }
+
+    /**
+     * Publishes every device's summary, at most once per second. Cheap to call
+     * every loop.
+     */
+    public static void publishAll() {
+        long now = RobotController.getFPGATime();
+        if (now - lastPublishTime < PUBLISH_INTERVAL_MICROS) {
+            return;
+        }
+        double seconds = lastPublishTime == 0 ? 0 : (now - lastPublishTime) / 1e6;
+        lastPublishTime = now;
+        DeviceStats[] current = devices;
+        for (int i = 0; i < current.length; i++) {
+            current[i].publish(seconds);
+        }
+    }
+
+    /**
+     * Records a control write.
+     *
+     * @param nanos How long the write blocked, in nanoseconds.
+     */
+    public synchronized void recordWrite(long nanos) {
+        writes++;
+        writeLatency.record(nanos);
+    }
+
+    /**
+     * Records a status read.
+     *
+     * @param nanos How long the read blocked, in nanoseconds.
+     */
+    public synchronized void recordRead(long nanos) {
+        reads++;
+        readLatency.record(nanos);
+    }
+
+    /**
+     * Records a config apply.
+     *
+     * @param nanos How long the apply blocked, in nanoseconds.
+     */
+    public synchronized void recordConfig(long nanos) {
+        configs++;
+        configLatency.record(nanos);
+    }
+
+    /**
+     * Records an error code returned by the device's vendor library.
+     *
+     * @param code The name of the error code.
+     */
+    public synchronized void recordError(String code) {
+        errors++;
+        errorCounts.merge(code, 1L, Long::sum);
+        lastError = code;
+    }
+
+    /**
+     * Gets the CAN bus name.
+     *
+     * @return The bus, "rio" for the roboRIO's bus.
+     */
+    public String getBus() {
+        return bus;
+    }
+
+    /**
+     * Gets the CAN ID.
+     *
+     * @return The ID.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the device type.
+     *
+     * @return The type.
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Gets the number of control writes recorded.
+     *
+     * @return The count.
+     */
+    public synchronized long getWrites() {
+        return writes;
+    }
+
+    /**
+     * Gets the number of status reads recorded.
+     *
+     * @return The count.
+     */
+    public synchronized long getReads() {
+        return reads;
+    }
+
+    /**
+     * Gets the number of config applies recorded.
+     *
+     * @return The count.
+     */
+    public synchronized long getConfigs() {
+        return configs;
+    }
+
+    /**
+     * Gets the number of error codes recorded.
+     *
+     * @return The count.
+     */
+    public synchronized long getErrors() {
+        return errors;
+    }
+
+    /**
+     * Gets how many times each error code was recorded.
+     *
+     * @return A copy of the counts, keyed by error code name.
+     */
+    public synchronized Map<String, Long> getErrorCounts() {
+        return new HashMap<>(errorCounts);
+    }
+
+    /**
+     * Gets the last error code recorded.
+     *
+     * @return The error code name, or an empty string if none.
+     */
+    public synchronized String getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Gets a copy of the control write latencies, in nanoseconds.
+     *
+     * @return The histogram.
+     */
+    public synchronized Histogram getWriteLatency() {
+        return copy(writeLatency);
+    }
+
+    /**
+     * Gets a copy of the status read latencies, in nanoseconds.
+     *
+     * @return The histogram.
+     */
+    public synchronized Histogram getReadLatency() {
+        return copy(readLatency);
+    }
+
+    /**
+     * Gets a copy of the config apply latencies, in nanoseconds.
+     *
+     * @return The histogram.
+     */
+    public synchronized Histogram getConfigLatency() {
+        return copy(configLatency);
+    }
+
+    /**
+     * Clears every counter and histogram.
+     */
+    public synchronized void reset() {
+        writes = reads = configs = errors = 0;
+        publishedWrites = publishedReads = 0;
+        writeLatency.reset();
+        readLatency.reset();
+        configLatency.reset();
+        errorCounts.clear();
+        lastError = "";
+    }
+
+    private static Histogram copy(Histogram histogram) {
+        Histogram copy = new Histogram();
+        copy.add(histogram);
+        return copy;
+    }
+
+    private synchronized void publish(double seconds) {
+        if (writeRateEntry == null) {
+            String prefix = "CAN " + bus + " " + type + " " + id + " ";
+            writeRateEntry = Telemetry.doubleEntry(prefix + "writes per s");
+            readRateEntry = Telemetry.doubleEntry(prefix + "reads per s");
+            configEntry = Telemetry.doubleEntry(prefix + "configs");
+            errorEntry = Telemetry.doubleEntry(prefix + "errors");
+            writeP99Entry = Telemetry.doubleEntry(prefix + "write p99 us");
+            readP99Entry = Telemetry.doubleEntry(prefix + "read p99 us");
+            configMaxEntry = Telemetry.doubleEntry(prefix + "config max ms");
+            lastErrorEntry = Telemetry.stringEntry(prefix + "last error");
+        }
+        if (seconds > 0) {
+            writeRateEntry.set((writes - publishedWrites) / seconds);
+            readRateEntry.set((reads - publishedReads) / seconds);
+        }
+        publishedWrites = writes;
+        publishedReads = reads;
+        configEntry.set(configs);
+        errorEntry.set(errors);
+        writeP99Entry.set(writeLatency.getPercentile(99) / 1e3);
+        readP99Entry.set(readLatency.getPercentile(99) / 1e3);
+        configMaxEntry.set(configLatency.getMax() / 1e6);
+        lastErrorEntry.set(lastError);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%s %d on %s: %d writes (p99 %d ns), %d reads (p99 %d ns), %d configs (max %d ns), %d errors%s",
+                type, id, bus, writes, writeLatency.getPercentile(99), reads, readLatency.getPercentile(99),
+                configs, configLatency.getMax(), errors, errors == 0 ? "" : " (last " + lastError + ")");
+    }
+}
@@ -1,25 +1,101 @@
 package frc.lib.motor;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 import com.ctre.phoenix6.hardware.TalonFX;
 import com.revrobotics.CANSparkMax;
 import com.revrobotics.CANSparkLowLevel.MotorType;
 
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.motorcontrol.MotorController;
+import frc.lib.motor.MotorConfig.Setting;
+import frc.lib.motor.adapters.DryRunAdapter;
+import frc.lib.motor.adapters.SimMotorAdapter;
 import frc.lib.motor.adapters.SparkBaseAdapter;
 import frc.lib.motor.adapters.TalonFXAdapter;
+import frc.lib.telemetry.DataRecorder;
 import frc.lib.util.PID;
+import frc.lib.util.SeqLock;
+import frc.lib.util.SoftwarePID;
 
 /**
  * A wrapper class for motors, simplifying use and implementation.
  */
 public class Motor {
+  private static final int DUTY_CYCLE = -1;
+  private static final int VOLTAGE_OUT = -2;
+  // Commands handed to a control thread use the modes above, a Control
+  // ordinal for a manual reference, REFERENCE plus a Control ordinal for a
+  // closed-loop reference, or STOP.
+  private static final int STOP = -3;
+  private static final double MAX_VOLTAGE = 12.0;
+  // Half of WPILib's default MotorSafety expiration (0.1 s), so a steady output
+  // is re-sent in time even when a loop runs late.
+  private static final double DEFAULT_KEEP_ALIVE = 0.05;
+  private static final Control[] CONTROLS = Control.values();
+  private static final int REFERENCE = CONTROLS.length;
+  private static final double[] NO_COMMAND = { Double.NaN, Double.NaN, 0, 0 };
+  // Control threads can run faster, but the status signals can't.
+  private static final double MAX_SIGNAL_HZ = 1000;
+  private static final List<Motor> all = new ArrayList<>();
+  // Copied on creation, so recordAll() iterates without the lock.
+  private static volatile Motor[] allArray = new Motor[0];
+
   private double threshold;
 
-  private PID pid;
+  private volatile PID pid;
+  private final EnumMap<Control, SoftwarePID> softwarePIDs = new EnumMap<>(Control.class);
+  private Control lastManualControl;
+  private double softwarePeriod = 0.02;
+  private ControlThread controlThread;
+  // On a control thread, the main thread only writes the latest command and
+  // these two counters; everything output-related below them is the control
+  // thread's.
+  private final SeqLock command = new SeqLock(4);
+  private volatile int pidGeneration;
+  private volatile boolean resendRequested;
+  private final double[] commandRead = new double[4];
+  private int controlPidGeneration;
+  // The control thread's position, velocity and voltage, published for the
+  // main thread each loop so only the control thread reads the device.
+  private final SeqLock readings = new SeqLock(3);
+  private final double[] readingsWrite = new double[3];
   private MotorAdapter adapter;
   private MotorController motor;
+  private MotorController liveMotor;
+  private DryRunAdapter dryRunAdapter;
+  private boolean dryRun;
+  private final DeviceStats stats;
+  private final DeviceStartup.Device startup;
+  private final DataRecorder.DoubleSignal setpointSignal;
+  private final DataRecorder.DoubleSignal positionSignal;
+  private final DataRecorder.DoubleSignal velocitySignal;
+  private final DataRecorder.DoubleSignal voltageSignal;
+
+  private final MotorConfig appliedConfig = new MotorConfig();
+  // Every setting sent, accepted or not, for DeviceStartup to verify.
+  private final MotorConfig requestedConfig = new MotorConfig();
+  private MotorConfig pendingConfig;
+  private boolean inTransaction;
+  private boolean asyncConfig;
+
+  // Owned by whichever thread sends the outputs; the volatile ones are shared
+  // with the main thread.
+  private volatile long keepAliveMicros;
+  private volatile boolean hasOutput;
+  private volatile double lastOutput;
+  private double lastFeedforward;
+  private int lastMode;
+  private int lastSlot;
+  private long lastSendTime;
+  private volatile long sentFrames;
+  private volatile long suppressedFrames;
 
   /**
    * An enum for common types of motor control: position, velocity, voltage.
@@ -30,6 +106,15 @@ public class Motor {
     POSITION, VELOCITY, VOLTAGE
   }
 
+  /**
+   * An enum for how a motor's feedback is used: for position, for velocity, or
+   * not at all (open loop). Status data that the usage doesn't need is sent less
+   * often, lowering CAN bus load.
+   */
+  public enum Usage {
+    POSITION, VELOCITY, OPEN_LOOP, ALL
+  }
+
   /**
    * Creates a Motor object given a motor and a motor adapter.
    * 
@@ -39,7 +124,61 @@ public class Motor {
   private Motor(MotorController motor, MotorAdapter adapter) {
     this.motor = motor;
     this.adapter = adapter;
+    this.stats = adapter.getStats();
+    this.startup = DeviceStartup.device(this, stats);
+    startup.run("initialize", adapter::initialize);
+    String name = "motor/" + stats.getBus() + "/" + stats.getType() + " " + stats.getId() + "/";
+    this.setpointSignal = DataRecorder.doubleSignal(name + "setpoint");
+    this.positionSignal = DataRecorder.doubleSignal(name + "position");
+    this.velocitySignal = DataRecorder.doubleSignal(name + "velocity");
+    this.voltageSignal = DataRecorder.doubleSignal(name + "voltage");
     setThreshold(0.05);
+    setKeepAlive(DEFAULT_KEEP_ALIVE);
+    synchronized (all) {
+      all.add(this);
+      allArray = all.toArray(new Motor[0]);
+    }
+  }
+
+  /**
+   * Gets every motor created so far.
+   * 
+   * @return The motors, in creation order.
+   */
+  public static List<Motor> all() {
+    synchronized (all) {
+      return Collections.unmodifiableList(new ArrayList<>(all));
+    }
+  }
+
+  /**
+   * Records every motor's position, velocity and voltage with the
+   * {@link DataRecorder}. Intended to be called once per loop from
+   * robotPeriodic.
+   */
+  public static void recordAll() {
+    Motor[] current = allArray;
+    for (int i = 0; i < current.length; i++) {
+      current[i].record();
+    }
+  }
+
+  /**
+   * Forgets every motor, so they are no longer listed or recorded. Called when
+   * a {@link frc.lib.sim.SimHarness} closes, so the next robot only sees its
+   * own motors.
+   */
+  public static void removeAll() {
+    synchronized (all) {
+      all.clear();
+      allArray = new Motor[0];
+    }
+  }
+
+  private void record() {
+    positionSignal.record(getPosition());
+    velocitySignal.record(getVelocity());
+    voltageSignal.record(getVoltage());
   }
 
   /**
@@ -49,6 +188,9 @@ public class Motor {
    * @return The constructed motor object.
    */
   public static Motor kraken(int id) {
+    if (RobotBase.isSimulation()) {
+      return simulated(SimMotorAdapter.kraken(id));
+    }
     TalonFX kraken = new TalonFX(id);
     return new Motor(kraken, new TalonFXAdapter(kraken));
   }
@@ -61,6 +203,9 @@ public class Motor {
    * @return The constructed motor object.
    */
   public static Motor kraken(int id, String CANBus) {
+    if (RobotBase.isSimulation()) {
+      return simulated(SimMotorAdapter.kraken(id));
+    }
     TalonFX kraken = new TalonFX(id, CANBus);
     return new Motor(kraken, new TalonFXAdapter(kraken));
   }
@@ -72,6 +217,9 @@ public class Motor {
    * @return The constructed motor object.
    */
   public static Motor falcon(int id) {
+    if (RobotBase.isSimulation()) {
+      return simulated(SimMotorAdapter.falcon(id));
+    }
     TalonFX falcon = new TalonFX(id);
     return new Motor(falcon, new TalonFXAdapter(falcon));
   }
@@ -84,6 +232,9 @@ public class Motor {
    * @return The constructed motor object.
    */
   public static Motor falcon(int id, String CANBus) {
+    if (RobotBase.isSimulation()) {
+      return simulated(SimMotorAdapter.falcon(id));
+    }
     TalonFX falcon = new TalonFX(id, CANBus);
     return new Motor(falcon, new TalonFXAdapter(falcon));
   }
@@ -95,10 +246,36 @@ public class Motor {
    * @return The constructed motor object.
    */
   public static Motor neo(int id) {
+    if (RobotBase.isSimulation()) {
+      return simulated(SimMotorAdapter.neo(id));
+    }
     CANSparkMax neo = new CANSparkMax(id, MotorType.kBrushless);
     return new Motor(neo, new SparkBaseAdapter(neo));
   }
 
+  /**
+   * Creates a Motor from any motor controller and adapter, e.g. a simulated or
+   * no-op motor. Both may be the same object.
+   * 
+   * @param motor   The motor controller.
+   * @param adapter The motor adapter.
+   * @return The constructed motor object.
+   */
+  public static Motor custom(MotorController motor, MotorAdapter adapter) {
+    return new Motor(motor, adapter);
+  }
+
+  /**
+   * Creates a Motor on a simulated motor controller.
+   * 
+   * @param sim The simulated motor controller, e.g.
+   *            {@code SimMotorAdapter.arm(id, DCMotor.getNEO(1), ...)}.
+   * @return The constructed motor object.
+   */
+  public static Motor simulated(SimMotorAdapter sim) {
+    return new Motor(sim, sim);
+  }
+
   /**
    * Allows use of a lambda function to access and configure the motor controller
    * object directly.
@@ -127,10 +304,21 @@ public class Motor {
    * @return The motor object, allowing for method chaining.
    */
   public Motor set(double speed) {
-    motor.set(speed);
+    if (controlThread != null) {
+      return handOver(speed, DUTY_CYCLE, 0, 0);
+    }
+    output(speed);
     return this;
   }
 
+  private void output(double speed) {
+    if (shouldSend(speed, 0, DUTY_CYCLE, 0)) {
+      long start = System.nanoTime();
+      motor.set(speed);
+      stats.recordWrite(System.nanoTime() - start);
+    }
+  }
+
   /**
    * Sets the motor's PID.
    * 
@@ -139,8 +327,15 @@ public class Motor {
    */
   public Motor setPID(PID pid) {
     this.pid = pid;
-    adapter.setPID(pid);
-    return this;
+    if (controlThread != null) {
+      // The control thread resets its controllers when it sees the change.
+      pidGeneration++;
+    } else {
+      softwarePIDs.clear();
+      lastManualControl = null;
+    }
+    stagedConfig().pid(pid);
+    return stagedConfigChanged();
   }
 
   /**
@@ -151,10 +346,35 @@ public class Motor {
    * @return The motor object, allowing for method chaining.
    */
   public Motor setReference(double reference, Control controlType) {
-    adapter.setReference(reference, controlType);
+    return setReference(reference, controlType, 0, 0);
+  }
+
+  /**
+   * Sets the motor's reference using a specific closed-loop slot and an
+   * additional feedforward.
+   * 
+   * @param reference   The reference value.
+   * @param controlType The type of reference, e.g. position or velocity.
+   * @param slot        The closed-loop (PID) slot to use.
+   * @param feedforward An additional feedforward, in volts.
+   * @return The motor object, allowing for method chaining.
+   */
+  public Motor setReference(double reference, Control controlType, int slot, double feedforward) {
+    if (controlThread != null) {
+      return handOver(reference, REFERENCE + controlType.ordinal(), slot, feedforward);
+    }
+    reference(reference, controlType, slot, feedforward);
     return this;
   }
 
+  private void reference(double reference, Control controlType, int slot, double feedforward) {
+    if (shouldSend(reference, feedforward, controlType.ordinal(), slot)) {
+      long start = System.nanoTime();
+      adapter.setReference(reference, controlType, slot, feedforward);
+      stats.recordWrite(System.nanoTime() - start);
+    }
+  }
+
   /**
    * Sets the motor's reference, assuming a position control.
    *
@@ -165,6 +385,18 @@ public class Motor {
     return setReference(reference, Control.POSITION);
   }
 
+  /**
+   * Sets how often closed-loop and voltage references are re-sent by the
+   * motor controller, where supported (TalonFX).
+   * 
+   * @param hz The update frequency, in hertz.
+   * @return The motor object, allowing for method chaining.
+   */
+  public Motor setUpdateFrequency(double hz) {
+    adapter.setUpdateFrequency(hz);
+    return this;
+  }
+
   /**
    * Sets the motor's (position/velocity) reference.
    * 
@@ -173,7 +405,7 @@ public class Motor {
    * @return The motor object, allowing for method chaining.
    */
   public Motor setRef(double reference, Control controlType) {
-    return setRef(reference, controlType);
+    return setReference(reference, controlType);
   }
 
   /**
@@ -203,34 +435,182 @@ public class Motor {
    * Use code based PID instead of integrated motor controller PID.
    * This method is intended to be called in updateMotors, (like setReference) and
    * relies on being called frequently for the PID controller to recalculate.
+   * <p>
+   * Each control type keeps its own controller, so integral and derivative state
+   * persist between calls. Switching control type resets the new controller.
+   * POSITION and VELOCITY output a duty cycle; VOLTAGE outputs volts.
    *
    * @param reference The reference value.
    * @param control   The type of PID control (POSITION, VELOCITY, or VOLTAGE)
    * @return The motor object, allowing for method chaining.
    */
   public Motor setManualReference(double reference, Control controlType) {
-    // TODO: FINISH
-    /*
-     * motor.set(pid.toPIDController().calculate(
-     * switch (controlType) {
-     * case POSITION -> getPosition();
-     * case VELOCITY -> getVelocity();
-     * case VOLTAGE -> getVoltage();
-     * }, reference));
-     */
-    switch (controlType) {
-      case VELOCITY -> {
-        motor.set(pid.toPIDController().calculate(getVelocity(), reference));
+    if (controlThread != null) {
+      return handOver(reference, controlType.ordinal(), 0, 0);
+    }
+    runSoftwareLoop(reference, controlType);
+    return this;
+  }
+
+  /**
+   * Runs the software PID for this motor on a control thread instead of the
+   * main loop. Call once, while setting the motor up.
+   * <p>
+   * After this, every output (set, setReference, setManualReference and
+   * stop) only hands the latest command to the thread, which sends it and
+   * recalculates manual references at the thread's rate. The thread owns the
+   * software PIDs and the output state, and refreshes the motor's signals
+   * itself each loop; their update frequency is raised to the thread's rate
+   * (up to 1 kHz), so set the motor's usage before this. The main loop no
+   * longer refreshes them, and the getters on other threads return the
+   * readings from the thread's latest loop.
+   * 
+   * @param thread The control thread.
+   * @return The motor object, allowing for method chaining.
+   * @throws IllegalStateException If the motor is already on a control thread.
+   */
+  public Motor runOnControlThread(ControlThread thread) {
+    if (controlThread != null) {
+      throw new IllegalStateException("Motor is already on " + controlThread);
+    }
+    double hz = Math.min(1 / thread.getPeriod(), MAX_SIGNAL_HZ);
+    setSignalFrequency(hz, hz, hz);
+    MotorAdapter target = adapter;
+    startup.run("detach signals", target::detachSignals);
+    softwarePeriod = thread.getPeriod();
+    softwarePIDs.clear();
+    lastManualControl = null;
+    command.write(NO_COMMAND);
+    publishReadings();
+    controlThread = thread;
+    // Registering publishes everything above to the thread.
+    thread.register(this);
+    return this;
+  }
+
+  /**
+   * Gets whether the motor runs on a {@link ControlThread}.
+   * 
+   * @return Whether {@link #runOnControlThread(ControlThread)} was called.
+   */
+  public boolean isOnControlThread() {
+    return controlThread != null;
+  }
+
+  /**
+   * Hands a command to the control thread, replacing the previous one.
+   */
+  private Motor handOver(double value, int mode, int slot, double feedforward) {
+    if (dryRun) {
+      return this;
+    }
+    setpointSignal.record(value);
+    command.beginWrite();
+    command.set(0, value);
+    command.set(1, mode);
+    command.set(2, slot);
+    command.set(3, feedforward);
+    command.endWrite();
+    return this;
+  }
+
+  /**
+   * Runs one iteration of the motor's latest command: refreshes its signals,
+   * then sends the output or recalculates the software PID. Called by the
+   * motor's {@link ControlThread}.
+   */
+  void updateSoftwareLoop() {
+    int generation = pidGeneration;
+    if (generation != controlPidGeneration) {
+      controlPidGeneration = generation;
+      softwarePIDs.clear();
+      lastManualControl = null;
+    }
+    if (resendRequested) {
+      resendRequested = false;
+      hasOutput = false;
+    }
+    adapter.refreshSignals();
+    publishReadings();
+    command.read(commandRead);
+    double value = commandRead[0];
+    if (Double.isNaN(value)) {
+      return;
+    }
+    int mode = (int) commandRead[1];
+    if (mode == STOP) {
+      if (hasOutput) {
+        halt();
       }
+    } else if (mode == DUTY_CYCLE) {
+      output(value);
+    } else if (mode >= REFERENCE) {
+      reference(value, CONTROLS[mode - REFERENCE], (int) commandRead[2], commandRead[3]);
+    } else {
+      runSoftwareLoop(value, CONTROLS[mode]);
+    }
+  }
+
+  private void publishReadings() {
+    readingsWrite[0] = position();
+    readingsWrite[1] = velocity();
+    readingsWrite[2] = voltage();
+    readings.write(readingsWrite);
+  }
+
+  private void runSoftwareLoop(double reference, Control controlType) {
+    SoftwarePID controller = softwarePID(controlType);
+    if (controlType != lastManualControl) {
+      controller.reset();
+      lastManualControl = controlType;
+    }
+    switch (controlType) {
       case POSITION -> {
-        // motor.set(pid.toPIDController().calculate(getPosition(), reference));
-        // I'm not sure the above is correct?
+        output(controller.calculate(position(), reference));
+      }
+      case VELOCITY -> {
+        output(controller.calculate(velocity(), reference));
       }
       case VOLTAGE -> {
-        motor.setVoltage(pid.toPIDController().calculate(getVoltage(), reference));
+        double voltage = controller.calculate(voltage(), reference);
+        if (shouldSend(voltage, 0, VOLTAGE_OUT, 0)) {
+          long start = System.nanoTime();
+          motor.setVoltage(voltage);
+          stats.recordWrite(System.nanoTime() - start);
+        }
       }
     }
-    return this;
+  }
+
+  /**
+   * Gets the software PID controller used by setManualReference for a control
+   * type, creating it from the motor's PID if needed. For a motor on a control
+   * thread, only that thread may call this.
+   * 
+   * @param controlType The type of PID control.
+   * @return The controller.
+   * @throws IllegalStateException If called off the motor's control thread.
+   */
+  public SoftwarePID getSoftwarePID(Control controlType) {
+    if (controlThread != null && !controlThread.isCurrentThread()) {
+      throw new IllegalStateException("Software PIDs belong to " + controlThread);
+    }
+    return softwarePID(controlType);
+  }
+
+  private SoftwarePID softwarePID(Control controlType) {
+    SoftwarePID controller = softwarePIDs.get(controlType);
+    if (controller == null) {
+      if (pid == null) {
+        throw new IllegalStateException("No PID set; call setPID before using manual references.");
+      }
+      controller = controlType == Control.VOLTAGE
+          ? new SoftwarePID(pid, -MAX_VOLTAGE, MAX_VOLTAGE)
+          : new SoftwarePID(pid, -1, 1);
+      controller.setPeriod(softwarePeriod);
+      softwarePIDs.put(controlType, controller);
+    }
+    return controller;
   }
 
   // TODO: Add javadoc comments for methods below
@@ -251,13 +631,51 @@ public class Motor {
     return setManualReference(reference, controlType);
   }
 
+  /**
+   * Sets how often the motor controller sends its position, velocity and
+   * voltage, where supported (TalonFX). Zero disables a signal.
+   * 
+   * @param positionHz The position update frequency, in hertz.
+   * @param velocityHz The velocity update frequency, in hertz.
+   * @param voltageHz  The voltage update frequency, in hertz.
+   * @return The motor object, allowing for method chaining.
+   */
+  public Motor setSignalFrequency(double positionHz, double velocityHz, double voltageHz) {
+    MotorAdapter target = adapter;
+    startup.run("signal frequency", () -> target.setSignalFrequency(positionHz, velocityHz, voltageHz));
+    return this;
+  }
+
+  /**
+   * Sets how the motor's feedback is used, adjusting how often the motor
+   * controller sends status data.
+   * 
+   * @param usage The usage profile.
+   * @return The motor object, allowing for method chaining.
+   */
+  public Motor setUsage(Usage usage) {
+    MotorAdapter target = adapter;
+    startup.run("usage", () -> target.setUsage(usage));
+    return this;
+  }
+
   /**
    * Returns the motor's current input voltage.
    * 
    * @return The motor's current input voltage.
    */
   public double getVoltage() {
-    return adapter.getVoltage();
+    if (isOffControlThread()) {
+      return readings.read(2);
+    }
+    return voltage();
+  }
+
+  private double voltage() {
+    long start = System.nanoTime();
+    double voltage = adapter.getVoltage();
+    stats.recordRead(System.nanoTime() - start);
+    return voltage;
   }
 
   /**
@@ -266,7 +684,17 @@ public class Motor {
    * @return The motor's current position.
    */
   public double getPosition() {
-    return adapter.getPosition();
+    if (isOffControlThread()) {
+      return readings.read(0);
+    }
+    return position();
+  }
+
+  private double position() {
+    long start = System.nanoTime();
+    double position = adapter.getPosition();
+    stats.recordRead(System.nanoTime() - start);
+    return position;
   }
 
   /**
@@ -275,7 +703,22 @@ public class Motor {
    * @return The motor's current velocity.
    */
   public double getVelocity() {
-    return adapter.getVelocity();
+    if (isOffControlThread()) {
+      return readings.read(1);
+    }
+    return velocity();
+  }
+
+  private double velocity() {
+    long start = System.nanoTime();
+    double velocity = adapter.getVelocity();
+    stats.recordRead(System.nanoTime() - start);
+    return velocity;
+  }
+
+  // Only the control thread reads a control thread motor's device.
+  private boolean isOffControlThread() {
+    return controlThread != null && !controlThread.isCurrentThread();
   }
 
   /**
@@ -287,6 +730,15 @@ public class Motor {
     return adapter;
   }
 
+  /**
+   * Gets the motor's CAN traffic and latency stats.
+   * 
+   * @return The motor's stats.
+   */
+  public DeviceStats getStats() {
+    return stats;
+  }
+
   /**
    * Sets the motor's inversion.
    * 
@@ -294,8 +746,9 @@ public class Motor {
    * @return The motor object, allowing for method chaining.
    */
   public Motor setInverted(boolean inverted) {
-    adapter.setInverted(inverted);
-    return this;
+    stagedConfig().inverted(inverted);
+    requestResend();
+    return stagedConfigChanged();
   }
 
   /**
@@ -305,7 +758,7 @@ public class Motor {
    */
   public Motor invert() {
     if (!adapter.isInverted()) {
-      adapter.setInverted(true);
+      setInverted(true);
     }
     return this;
   }
@@ -317,8 +770,8 @@ public class Motor {
    * @return The motor object, allowing for method chaining.
    */
   public Motor setCurrentLimit(double val) {
-    adapter.setCurrentLimit(val);
-    return this;
+    stagedConfig().set(Setting.SUPPLY_CURRENT_LIMIT, val);
+    return stagedConfigChanged();
   }
 
   /**
@@ -328,10 +781,149 @@ public class Motor {
    * @return The motor object, allowing for method chaining.
    */
   public Motor setStatorCurrentLimit(double val) {
-    adapter.setStatorCurrentLimit(val);
+    stagedConfig().set(Setting.STATOR_CURRENT_LIMIT, val);
+    return stagedConfigChanged();
+  }
+
+  /**
+   * Sets forward and reverse soft limits on the motor.
+   * 
+   * @param forward The forward soft limit.
+   * @param back    The reverse soft limit.
+   * @return The motor object, allowing for method chaining.
+   */
+  public Motor setSoftLimits(double forward, double back) {
+    stagedConfig().set(Setting.FORWARD_LIMIT, forward).set(Setting.BACK_LIMIT, back);
+    return stagedConfigChanged();
+  }
+
+  /**
+   * Starts a configuration transaction. Until {@link #commitConfig()} is called,
+   * configuration setters (setPID, setInverted, setCurrentLimit,
+   * setStatorCurrentLimit, setSoftLimits) only collect their changes.
+   * 
+   * @return The motor object, allowing for method chaining.
+   */
+  public Motor beginConfig() {
+    inTransaction = true;
     return this;
   }
 
+  /**
+   * Ends a configuration transaction, sending every collected setting that
+   * differs from the last applied configuration in a single apply. Nothing is
+   * sent if no setting changed.
+   * 
+   * @return The motor object, allowing for method chaining.
+   */
+  public Motor commitConfig() {
+    inTransaction = false;
+    if (pendingConfig == null) {
+      return this;
+    }
+    MotorConfig changes;
+    synchronized (appliedConfig) {
+      changes = pendingConfig.diff(appliedConfig);
+    }
+    pendingConfig = null;
+    if (!changes.isEmpty()) {
+      applyConfig(changes);
+    }
+    return this;
+  }
+
+  /**
+   * Sends config changes to the adapter, queued behind the device's other
+   * setup while {@link DeviceStartup} is bringing devices up. Only the
+   * settings the device accepted count as applied, so failed ones are sent
+   * again by the next commit that sets them.
+   */
+  private void applyConfig(MotorConfig changes) {
+    synchronized (requestedConfig) {
+      requestedConfig.merge(changes);
+    }
+    MotorAdapter target = adapter;
+    Runnable apply = () -> {
+      long start = System.nanoTime();
+      MotorConfig applied = target.applyConfig(changes);
+      stats.recordConfig(System.nanoTime() - start);
+      synchronized (appliedConfig) {
+        appliedConfig.merge(applied);
+      }
+    };
+    if (asyncConfig) {
+      startup.runAsync("config", apply);
+    } else {
+      startup.run("config", apply);
+    }
+  }
+
+  /**
+   * Applies several configuration changes as one transaction, e.g.
+   * {@code motor.configure(m -> m.setPID(pid).setCurrentLimit(40))}.
+   * 
+   * @param changes The lambda function making the changes.
+   * @return The motor object, allowing for method chaining.
+   */
+  public Motor configure(Consumer<Motor> changes) {
+    beginConfig();
+    changes.accept(this);
+    return commitConfig();
+  }
+
+  /**
+   * Applies several configuration changes as one transaction, like
+   * {@link #configure(Consumer)}, but without blocking: on the robot, the
+   * apply runs on a {@link DeviceStartup} thread, queued behind the device's
+   * earlier config. Intended for config changed while the robot runs, e.g.
+   * current limits set by the {@link PowerManager}.
+   * 
+   * @param changes The lambda function making the changes.
+   * @return The motor object, allowing for method chaining.
+   */
+  public Motor configureAsync(Consumer<Motor> changes) {
+    asyncConfig = true;
+    try {
+      return configure(changes);
+    } finally {
+      asyncConfig = false;
+    }
+  }
+
+  /**
+   * Gets the last configuration applied through this motor.
+   * 
+   * @return A copy of the applied configuration.
+   */
+  public MotorConfig getAppliedConfig() {
+    synchronized (appliedConfig) {
+      return new MotorConfig().merge(appliedConfig);
+    }
+  }
+
+  /**
+   * Gets every setting sent through this motor, including ones the device
+   * didn't accept.
+   * 
+   * @return A copy of the requested configuration.
+   */
+  MotorConfig getRequestedConfig() {
+    synchronized (requestedConfig) {
+      return new MotorConfig().merge(requestedConfig);
+    }
+  }
+
+  private MotorConfig stagedConfig() {
+    if (pendingConfig == null) {
+      pendingConfig = new MotorConfig();
+    }
+    return pendingConfig;
+  }
+
+  private Motor stagedConfigChanged() {
+    return inTransaction ? this : commitConfig();
+  }
+
   /**
    * States whether the motor is at a specified target.
    * 
@@ -372,9 +964,211 @@ public class Motor {
   }
 
   /**
-   * Stops the motor.
+   * Sets how long an unchanged output is suppressed for before it is sent
+   * again. Identical outputs (same value, control type and slot) are not
+   * re-sent within this period, which saves CAN bandwidth while still
+   * refreshing the device often enough for motor-safety timeouts. Keep it
+   * well under the motor-safety expiration; the default is 0.05 seconds.
+   * 
+   * @param seconds The keep-alive period, in seconds. Zero sends every output.
+   * @return The motor object, allowing for method chaining.
+   */
+  public Motor setKeepAlive(double seconds) {
+    this.keepAliveMicros = (long) (seconds * 1e6);
+    return this;
+  }
+
+  /**
+   * Gets the number of outputs sent to the motor controller.
+   * 
+   * @return The number of sent outputs.
+   */
+  public long getSentFrames() {
+    return sentFrames;
+  }
+
+  /**
+   * Gets the number of outputs suppressed because they repeated the last sent
+   * output.
+   * 
+   * @return The number of suppressed outputs.
+   */
+  public long getSuppressedFrames() {
+    return suppressedFrames;
+  }
+
+  /**
+   * Gets the last output sent to the motor controller, whatever its control
+   * mode.
+   * 
+   * @return The last output, or NaN if none was sent since the motor was last
+   *         stopped.
+   */
+  public double getLastOutput() {
+    return hasOutput ? lastOutput : Double.NaN;
+  }
+
+  /**
+   * Replaces the motor's adapter with a wrapper around it, e.g. to record or
+   * replay its inputs. The motor's stats stay with the original adapter.
+   * 
+   * @param wrapper A function from the current adapter to the new one.
+   * @return The motor object, allowing for method chaining.
+   */
+  public Motor wrapAdapter(UnaryOperator<MotorAdapter> wrapper) {
+    adapter = wrapper.apply(adapter);
+    return this;
+  }
+
+  /**
+   * Gets whether this motor can follow another in hardware. Used by
+   * {@link MotorGroup}.
+   * 
+   * @param leader The leader.
+   * @return Whether the motor controllers support it.
+   */
+  boolean canFollow(Motor leader) {
+    return adapter.unwrap().canFollow(leader.adapter.unwrap());
+  }
+
+  /**
+   * Makes this motor follow another in hardware. Used by {@link MotorGroup},
+   * which only calls it when {@link #canFollow(Motor)} is true.
+   * 
+   * @param leader  The leader.
+   * @param opposed Whether to turn the opposite way to the leader.
+   */
+  void follow(Motor leader, boolean opposed) {
+    assert canFollow(leader) : "Motor can't follow " + leader.getStats().getType() + " in hardware";
+    MotorAdapter target = adapter.unwrap();
+    MotorAdapter leaderAdapter = leader.adapter.unwrap();
+    requestResend();
+    startup.run("follow", () -> target.follow(leaderAdapter, opposed));
+  }
+
+  /**
+   * Starts or stops a dry run, during which outputs and encoder resets are
+   * dropped instead of being sent to the motor controller, so code can be
+   * exercised (e.g. to warm up the JIT) without moving anything. Dropped
+   * outputs are not recorded as setpoints or counted in the motor's stats.
+   * Readings still come from the motor controller. Configuration changes made
+   * during the dry run are applied when it stops, and the software PIDs and
+   * last output are reset so the next real output is always sent.
+   * <p>
+   * A motor on a control thread only stops taking commands, and its thread
+   * idles; configuration and encoder resets still reach the motor controller.
+   * 
+   * @param enabled Whether to dry run.
+   * @return The motor object, allowing for method chaining.
+   */
+  public Motor setDryRun(boolean enabled) {
+    if (enabled == dryRun) {
+      return this;
+    }
+    dryRun = enabled;
+    if (controlThread != null) {
+      // The control thread owns the outputs, so it is left idle rather than
+      // rerouted: commands are dropped while dry running, and it starts over
+      // with fresh controllers afterwards.
+      command.write(NO_COMMAND);
+      if (!enabled) {
+        pidGeneration++;
+        requestResend();
+      }
+      return this;
+    }
+    if (enabled) {
+      if (dryRunAdapter == null || dryRunAdapter.getDelegate() != adapter) {
+        dryRunAdapter = new DryRunAdapter(adapter);
+      }
+      liveMotor = motor;
+      motor = dryRunAdapter;
+      adapter = dryRunAdapter;
+      return this;
+    }
+
+    motor = liveMotor;
+    adapter = dryRunAdapter.getDelegate();
+    liveMotor = null;
+    MotorConfig deferred = dryRunAdapter.takeDeferredConfig();
+    if (deferred != null) {
+      applyConfig(deferred);
+    }
+    for (SoftwarePID controller : softwarePIDs.values()) {
+      controller.reset();
+    }
+    lastManualControl = null;
+    hasOutput = false;
+    return this;
+  }
+
+  /**
+   * Decides whether an output needs to be sent, and records it if so.
+   * 
+   * @param output      The output value.
+   * @param feedforward The additional feedforward.
+   * @param mode        The control mode: a Control ordinal, DUTY_CYCLE or
+   *                    VOLTAGE_OUT.
+   * @param slot        The closed-loop slot.
+   * @return Whether the output should be sent.
+   */
+  private boolean shouldSend(double output, double feedforward, int mode, int slot) {
+    long now = RobotController.getFPGATime();
+    boolean repeated = hasOutput && mode == lastMode && slot == lastSlot
+        && Double.compare(output, lastOutput) == 0 && Double.compare(feedforward, lastFeedforward) == 0
+        && now - lastSendTime < keepAliveMicros;
+    if (dryRun) {
+      // Nothing would reach the motor controller, so nothing is recorded,
+      // counted or sent.
+      return false;
+    }
+    if (repeated) {
+      suppressedFrames++;
+      return false;
+    }
+    hasOutput = true;
+    if (controlThread == null) {
+      // Motors on a control thread record their command when it is handed
+      // over, since the recorder only accepts samples from the main thread.
+      setpointSignal.record(output);
+    }
+    lastOutput = output;
+    lastFeedforward = feedforward;
+    lastMode = mode;
+    lastSlot = slot;
+    lastSendTime = now;
+    sentFrames++;
+    return true;
+  }
+
+  /**
+   * Stops the motor. On a control thread, the thread stops it on its next
+   * loop and keeps it stopped until it is given another output.
    */
   public void stop() {
+    if (controlThread != null) {
+      if (!dryRun) {
+        command.beginWrite();
+        command.set(0, 0);
+        command.set(1, STOP);
+        command.endWrite();
+      }
+      return;
+    }
+    halt();
+  }
+
+  private void halt() {
     motor.stopMotor();
+    hasOutput = false;
+  }
+
+  // Makes the next output be sent even if it repeats the last one.
+  private void requestResend() {
+    if (controlThread != null) {
+      resendRequested = true;
+    } else {
+      hasOutput = false;
+    }
   }
 }
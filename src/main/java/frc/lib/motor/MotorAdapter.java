@@ -1,20 +1,116 @@
 package frc.lib.motor;
 
 import frc.lib.motor.Motor.Control;
+import frc.lib.motor.Motor.Usage;
+import frc.lib.motor.MotorConfig.Setting;
 import frc.lib.util.PID;
 
 public interface MotorAdapter {
+    /**
+     * Does the setup that has to talk to the device, e.g. reading its config.
+     * Called once by Motor, possibly on a {@link DeviceStartup} thread.
+     */
+    default void initialize() {}
     void resetEncoder();
-    void setPID(PID pid);
-    void setInverted(boolean toInvert);
-    void setCurrentLimit(double limit);
-    void setReference(double reference, Control controlType);
-    void setSoftLimits(double forward, double back);
-    void setForwardLimit(double forward);
-    void setBackLimit(double back);
+    /**
+     * Applies config changes to the device.
+     *
+     * @param changes The settings to change.
+     * @return The settings the device accepted: the changes themselves if
+     *         every one applied, fewer if some failed or the device has no
+     *         equivalent for them.
+     */
+    MotorConfig applyConfig(MotorConfig changes);
+    void setReference(double reference, Control controlType, int slot, double feedforward);
+    default void setReference(double reference, Control controlType) {
+        setReference(reference, controlType, 0, 0);
+    }
+    default void setUpdateFrequency(double hz) {};
+    default void setSignalFrequency(double positionHz, double velocityHz, double voltageHz) {};
+    default void setUsage(Usage usage) {};
+    /**
+     * Fetches the latest position, velocity and voltage from the device, for
+     * callers that run outside the main loop's refresh (e.g. a control thread).
+     * Adapters whose readings are pushed to them need not do anything.
+     */
+    default void refreshSignals() {}
+    /**
+     * Stops the main loop from refreshing this device's signals, because
+     * another thread now refreshes them with {@link #refreshSignals()}.
+     * Phoenix signals must not be refreshed from two threads.
+     */
+    default void detachSignals() {}
     double getPosition();
     double getVelocity();
     double getVoltage();
     boolean isInverted();
-    default void setStatorCurrentLimit(double limit) {};
+    DeviceStats getStats();
+
+    /**
+     * Gets the adapter that talks to the device, unwrapping adapters that only
+     * intercept calls (e.g. for replay or dry runs).
+     *
+     * @return The innermost adapter; this one if it wraps nothing.
+     */
+    default MotorAdapter unwrap() {
+        return this;
+    }
+
+    /**
+     * Gets whether this device can follow another's output in hardware.
+     *
+     * @param leader The leader's adapter.
+     * @return Whether {@link #follow} is supported for the leader.
+     */
+    default boolean canFollow(MotorAdapter leader) {
+        return false;
+    }
+
+    /**
+     * Makes this device follow another's output in hardware until it is given
+     * another output. Callers must check {@link #canFollow} first; devices
+     * that can't follow ignore this.
+     *
+     * @param leader  The leader's adapter.
+     * @param opposed Whether to turn the opposite way to the leader.
+     */
+    default void follow(MotorAdapter leader, boolean opposed) {}
+
+    /**
+     * Reads back the config the device is actually using, for the settings the
+     * device can report.
+     *
+     * @return The device's config, or null if it can't be read back.
+     */
+    default MotorConfig readConfig() {
+        return null;
+    }
+
+    default void setPID(PID pid) {
+        applyConfig(new MotorConfig().pid(pid));
+    }
+
+    default void setInverted(boolean toInvert) {
+        applyConfig(new MotorConfig().inverted(toInvert));
+    }
+
+    default void setCurrentLimit(double limit) {
+        applyConfig(new MotorConfig().set(Setting.SUPPLY_CURRENT_LIMIT, limit));
+    }
+
+    default void setStatorCurrentLimit(double limit) {
+        applyConfig(new MotorConfig().set(Setting.STATOR_CURRENT_LIMIT, limit));
+    }
+
+    default void setSoftLimits(double forward, double back) {
+        applyConfig(new MotorConfig().set(Setting.FORWARD_LIMIT, forward).set(Setting.BACK_LIMIT, back));
+    }
+
+    default void setForwardLimit(double forward) {
+        applyConfig(new MotorConfig().set(Setting.FORWARD_LIMIT, forward));
+    }
+
+    default void setBackLimit(double back) {
+        applyConfig(new MotorConfig().set(Setting.BACK_LIMIT, back));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,152 @@
+package frc.lib.motor;
+
+import java.util.Arrays;
+
+import frc.lib.util.PID;
+
+/**
+ * A set of motor controller settings, used to batch configuration changes.
+ * <p>
+ * Settings that have not been given a value are left unchanged when the config
+ * is applied. {@link Motor} keeps the last applied config as a shadow and only
+ * sends the settings that differ from it.
+ */
+public class MotorConfig {
+  /**
+   * The settings a MotorConfig can hold.
+   */
+  public enum Setting {
+    P, I, D, F, I_ZONE, MIN_OUTPUT, MAX_OUTPUT, D_FILTER,
+    SUPPLY_CURRENT_LIMIT, STATOR_CURRENT_LIMIT,
+    FORWARD_LIMIT, BACK_LIMIT,
+    INVERTED
+  }
+
+  private static final Setting[] SETTINGS = Setting.values();
+
+  private final double[] values = new double[SETTINGS.length];
+
+  /**
+   * Creates an empty config.
+   */
+  public MotorConfig() {
+    Arrays.fill(values, Double.NaN);
+  }
+
+  /**
+   * Sets a setting's value.
+   *
+   * @param setting The setting.
+   * @param value   The value.
+   * @return The config, allowing for method chaining.
+   */
+  public MotorConfig set(Setting setting, double value) {
+    values[setting.ordinal()] = value;
+    return this;
+  }
+
+  /**
+   * Checks if a setting has a value in this config.
+   *
+   * @param setting The setting.
+   * @return Whether the setting has a value.
+   */
+  public boolean has(Setting setting) {
+    return !Double.isNaN(values[setting.ordinal()]);
+  }
+
+  /**
+   * Gets a setting's value.
+   *
+   * @param setting The setting.
+   * @return The value, or NaN if it has none.
+   */
+  public double get(Setting setting) {
+    return values[setting.ordinal()];
+  }
+
+  /**
+   * Sets the PID settings from a PID object. P, I and D default to 0 if not
+   * present; the other constants are only set if present.
+   *
+   * @param pid The PID.
+   * @return The config, allowing for method chaining.
+   */
+  public MotorConfig pid(PID pid) {
+    set(Setting.P, pid.getP().orElse(0.0));
+    set(Setting.I, pid.getI().orElse(0.0));
+    set(Setting.D, pid.getD().orElse(0.0));
+    pid.getF().ifPresent(value -> set(Setting.F, value));
+    pid.getIZone().ifPresent(value -> set(Setting.I_ZONE, value));
+    pid.getMinOutput().ifPresent(value -> set(Setting.MIN_OUTPUT, value));
+    pid.getMaxOutput().ifPresent(value -> set(Setting.MAX_OUTPUT, value));
+    pid.getDFilter().ifPresent(value -> set(Setting.D_FILTER, value));
+    return this;
+  }
+
+  /**
+   * Sets the inversion setting.
+   *
+   * @param inverted Whether the motor should be inverted.
+   * @return The config, allowing for method chaining.
+   */
+  public MotorConfig inverted(boolean inverted) {
+    return set(Setting.INVERTED, inverted ? 1 : 0);
+  }
+
+  /**
+   * Copies every setting with a value from another config into this one.
+   *
+   * @param other The config to copy from.
+   * @return The config, allowing for method chaining.
+   */
+  public MotorConfig merge(MotorConfig other) {
+    for (Setting setting : SETTINGS) {
+      if (other.has(setting)) {
+        set(setting, other.get(setting));
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Finds the settings in this config that differ from another config.
+   *
+   * @param applied The config to compare against, e.g. the last applied config.
+   * @return A new config holding only the settings that changed.
+   */
+  public MotorConfig diff(MotorConfig applied) {
+    MotorConfig changes = new MotorConfig();
+    for (Setting setting : SETTINGS) {
+      if (has(setting) && Double.compare(get(setting), applied.get(setting)) != 0) {
+        changes.set(setting, get(setting));
+      }
+    }
+    return changes;
+  }
+
+  /**
+   * Checks if this config has no settings.
+   *
+   * @return Whether the config is empty.
+   */
+  public boolean isEmpty() {
+    for (Setting setting : SETTINGS) {
+      if (has(setting)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("MotorConfig{");
+    for (Setting setting : SETTINGS) {
+      if (has(setting)) {
+        builder.append(' ').append(setting).append('=').append(get(setting));
+      }
+    }
+    return builder.append(" }").toString();
+  }
+}
@@ -0,0 +1,156 @@
+package frc.lib.motor;
+
+import java.util.Arrays;
+
+import frc.lib.motor.Motor.Control;
+
+/**
+ * Motors that drive one mechanism together, e.g. two flywheel motors, controlled
+ * through a leader.
+ * <p>
+ * Members that can follow the leader in hardware (a TalonFX following a
+ * TalonFX on the same bus, or a Spark following a Spark) are set up once
+ * with Phoenix's {@code Follower} request or REV's {@code follow()}, so each
+ * loop sends a single control frame, to the leader. Other members (a
+ * different controller type, or a ratio other than 1 or -1) are sent the
+ * leader's command scaled by their ratio, right after the leader, and like
+ * every Motor output only when it changes. These can't be batched with the
+ * leader's frame: CAN control frames are addressed to one device, and neither
+ * Phoenix nor REVLib can send one request to several devices, so each
+ * software member costs its own frame.
+ * <p>
+ * Inversion is relative to the leader and is set through the group, not on
+ * the members: hardware followers ignore their own inversion. Members should
+ * not be given outputs directly, since that stops them following.
+ */
+public class MotorGroup {
+    private final Motor leader;
+    private Motor[] softwareMembers = new Motor[0];
+    private double[] ratios = new double[0];
+    private Motor[] hardwareMembers = new Motor[0];
+
+    /**
+     * Creates a group with a leader.
+     *
+     * @param leader The motor that receives the group's commands.
+     */
+    public MotorGroup(Motor leader) {
+        this.leader = leader;
+    }
+
+    /**
+     * Adds a member that turns the same way as the leader.
+     *
+     * @param member The motor.
+     * @return The group, allowing for method chaining.
+     */
+    public MotorGroup add(Motor member) {
+        return add(member, 1);
+    }
+
+    /**
+     * Adds a member.
+     *
+     * @param member  The motor.
+     * @param opposed Whether it turns the opposite way to the leader.
+     * @return The group, allowing for method chaining.
+     */
+    public MotorGroup add(Motor member, boolean opposed) {
+        return add(member, opposed ? -1 : 1);
+    }
+
+    /**
+     * Adds a member whose output is the leader's command times a ratio. Only
+     * ratios of 1 and -1 can be followed in hardware.
+     *
+     * @param member The motor.
+     * @param ratio  The member's command per unit of the leader's; negative
+     *               turns the opposite way.
+     * @return The group, allowing for method chaining.
+     */
+    public MotorGroup add(Motor member, double ratio) {
+        if (Math.abs(ratio) == 1 && member.canFollow(leader)) {
+            member.follow(leader, ratio < 0);
+            hardwareMembers = Arrays.copyOf(hardwareMembers, hardwareMembers.length + 1);
+            hardwareMembers[hardwareMembers.length - 1] = member;
+        } else {
+            softwareMembers = Arrays.copyOf(softwareMembers, softwareMembers.length + 1);
+            softwareMembers[softwareMembers.length - 1] = member;
+            ratios = Arrays.copyOf(ratios, ratios.length + 1);
+            ratios[ratios.length - 1] = ratio;
+        }
+        return this;
+    }
+
+    /**
+     * Sets the speed of the group, from -1 to 1.
+     *
+     * @param speed The leader's speed.
+     * @return The group, allowing for method chaining.
+     */
+    public MotorGroup set(double speed) {
+        leader.set(speed);
+        for (int i = 0; i < softwareMembers.length; i++) {
+            softwareMembers[i].set(speed * ratios[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the group's reference.
+     *
+     * @param reference   The leader's reference.
+     * @param controlType The type of reference, e.g. position or velocity.
+     * @return The group, allowing for method chaining.
+     */
+    public MotorGroup setReference(double reference, Control controlType) {
+        return setReference(reference, controlType, 0, 0);
+    }
+
+    /**
+     * Sets the group's reference using a specific closed-loop slot and an
+     * additional feedforward. Software members get both scaled by their ratio.
+     *
+     * @param reference   The leader's reference.
+     * @param controlType The type of reference, e.g. position or velocity.
+     * @param slot        The closed-loop (PID) slot to use.
+     * @param feedforward The leader's additional feedforward, in volts.
+     * @return The group, allowing for method chaining.
+     */
+    public MotorGroup setReference(double reference, Control controlType, int slot, double feedforward) {
+        leader.setReference(reference, controlType, slot, feedforward);
+        for (int i = 0; i < softwareMembers.length; i++) {
+            softwareMembers[i].setReference(reference * ratios[i], controlType, slot, feedforward * ratios[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Stops every motor in the group.
+     */
+    public void stop() {
+        leader.stop();
+        for (int i = 0; i < softwareMembers.length; i++) {
+            softwareMembers[i].stop();
+        }
+    }
+
+    /**
+     * Gets the leader.
+     *
+     * @return The leader.
+     */
+    public Motor getLeader() {
+        return leader;
+    }
+
+    /**
+     * Gets whether a member follows the leader in hardware.
+     *
+     * @param member The member.
+     * @return Whether the member is a hardware follower.
+     */
+    public boolean isHardwareFollower(Motor member) {
+        return Arrays.asList(hardwareMembers).contains(member);
+    }
+}
@@ -0,0 +1,226 @@
+package frc.lib.motor;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.wpilibj.PowerDistribution;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.lib.motor.adapters.SimMotorAdapter;
+import frc.lib.telemetry.Telemetry;
+
+/**
+ * Shares a robot-wide current budget between motors by priority, to avoid
+ * brownouts without leaving every motor on a conservative fixed limit.
+ * <p>
+ * Each loop, {@link #update()} reads the battery voltage and the total
+ * current from the PDH (in simulation, from the simulated motors). The
+ * budget shrinks as the voltage sags toward brownout, or when the robot
+ * draws more than the budget. Every registered motor gets at least its
+ * minimum supply current limit. What is left goes to motors in priority
+ * order, up to each motor's maximum, and motors of equal priority share
+ * alike.
+ * <p>
+ * To keep config traffic low, a limit is only changed when it moves by more
+ * than a few amps. Raising a limit waits a short while after the last change.
+ * At most a couple of motors are changed per loop, and the applies run off
+ * the main thread ({@link Motor#configureAsync}). The budget and readings are
+ * published under "power" in the SmartDashboard table. For example, in a
+ * subsystem's constructor:
+ *
+ * <pre>{@code
+ * PowerManager.register(shooterTopMotor, 2, 20, 60);
+ * }</pre>
+ */
+public final class PowerManager {
+    private static final double BROWNOUT_START_VOLTS = 9.0;
+    private static final double BROWNOUT_FLOOR_VOLTS = 7.0;
+    private static final double HYSTERESIS_AMPS = 5;
+    private static final long RAISE_DELAY_MICROS = 500_000;
+    private static final int MAX_CHANGES_PER_LOOP = 2;
+
+    private static final List<Member> registered = new ArrayList<>();
+    private static Member[] members = new Member[0];
+
+    private static double budgetAmps = Double.POSITIVE_INFINITY;
+    private static DoubleSupplier totalCurrent;
+    private static PowerDistribution pdh;
+
+    private static final Telemetry.DoubleEntry voltageEntry = Telemetry.doubleEntry("power voltage")
+            .withTolerance(0.05);
+    private static final Telemetry.DoubleEntry currentEntry = Telemetry.doubleEntry("power current")
+            .withTolerance(0.5);
+    private static final Telemetry.DoubleEntry availableEntry = Telemetry.doubleEntry("power available")
+            .withTolerance(1);
+
+    private PowerManager() {}
+
+    /**
+     * Starts managing current limits, reading the total current from the PDH
+     * (or the simulated motors).
+     *
+     * @param budget The total current the robot may draw, in amps.
+     */
+    public static void start(double budget) {
+        if (totalCurrent == null) {
+            if (RobotBase.isReal()) {
+                pdh = new PowerDistribution();
+                totalCurrent = pdh::getTotalCurrent;
+            } else {
+                totalCurrent = SimMotorAdapter::getTotalSupplyCurrent;
+            }
+        }
+        budgetAmps = budget;
+    }
+
+    /**
+     * Registers a motor whose supply current limit should be managed. From
+     * then on the PowerManager owns the motor's supply current limit: it is
+     * set to the maximum now, replacing any limit the motor was configured
+     * with, and the motor shouldn't be given one elsewhere.
+     *
+     * @param motor    The motor.
+     * @param priority The motor's priority; higher priorities get current
+     *                 first.
+     * @param minAmps  The lowest limit to give the motor.
+     * @param maxAmps  The highest limit to give the motor.
+     */
+    public static void register(Motor motor, int priority, double minAmps, double maxAmps) {
+        motor.setCurrentLimit(maxAmps);
+        registered.add(new Member(motor, priority, minAmps, maxAmps));
+        registered.sort(Comparator.comparingInt((Member member) -> member.priority).reversed());
+        members = registered.toArray(new Member[0]);
+    }
+
+    /**
+     * Stops managing every registered motor, leaving their limits as they
+     * are. Called when a {@link frc.lib.sim.SimHarness} closes, so the next
+     * robot only manages its own motors.
+     */
+    public static void removeAll() {
+        registered.clear();
+        members = new Member[0];
+    }
+
+    /**
+     * Redistributes the budget and applies changed limits. Call once per loop
+     * from robotPeriodic.
+     */
+    public static void update() {
+        if (totalCurrent == null || members.length == 0) {
+            return;
+        }
+        double voltage = RobotController.getBatteryVoltage();
+        double current = totalCurrent.getAsDouble();
+        double available = available(voltage, current);
+        allocate(available);
+        applyChanges();
+
+        voltageEntry.set(voltage);
+        currentEntry.set(current);
+        availableEntry.set(available);
+    }
+
+    /**
+     * Gets the supply current limit last given to a motor.
+     *
+     * @param motor The motor.
+     * @return The limit, in amps, or NaN if the motor isn't registered.
+     */
+    public static double getLimit(Motor motor) {
+        for (Member member : members) {
+            if (member.motor == motor) {
+                return member.applied;
+            }
+        }
+        return Double.NaN;
+    }
+
+    // The budget, scaled down linearly as the voltage falls from the start of
+    // brownout to its floor, and in proportion when the robot is over budget.
+    private static double available(double voltage, double current) {
+        double voltageScale = (voltage - BROWNOUT_FLOOR_VOLTS) / (BROWNOUT_START_VOLTS - BROWNOUT_FLOOR_VOLTS);
+        double scale = Math.max(0, Math.min(1, voltageScale));
+        if (current > budgetAmps) {
+            scale = Math.min(scale, budgetAmps / current);
+        }
+        return budgetAmps * scale;
+    }
+
+    private static void allocate(double available) {
+        double remaining = available;
+        for (Member member : members) {
+            remaining -= member.minAmps;
+        }
+        // Members are sorted by priority, highest first.
+        int start = 0;
+        while (start < members.length) {
+            int end = start;
+            double wanted = 0;
+            while (end < members.length && members[end].priority == members[start].priority) {
+                wanted += members[end].maxAmps - members[end].minAmps;
+                end++;
+            }
+            double share = wanted <= 0 ? 0 : Math.max(0, Math.min(1, remaining / wanted));
+            for (int i = start; i < end; i++) {
+                Member member = members[i];
+                member.target = member.minAmps + (member.maxAmps - member.minAmps) * share;
+            }
+            remaining -= wanted * share;
+            start = end;
+        }
+    }
+
+    // Cuts first, since they prevent brownouts, then raises.
+    private static void applyChanges() {
+        long now = RobotController.getFPGATime();
+        int changes = 0;
+        for (int i = members.length - 1; i >= 0 && changes < MAX_CHANGES_PER_LOOP; i--) {
+            Member member = members[i];
+            if (member.applied - member.target >= HYSTERESIS_AMPS) {
+                member.apply(now);
+                changes++;
+            }
+        }
+        for (int i = 0; i < members.length && changes < MAX_CHANGES_PER_LOOP; i++) {
+            Member member = members[i];
+            if (member.target - member.applied >= HYSTERESIS_AMPS
+                    && now - member.lastChangeTime >= RAISE_DELAY_MICROS) {
+                member.apply(now);
+                changes++;
+            }
+        }
+    }
+
+    /**
+     * A managed motor.
+     */
+    private static final class Member {
+        private final Motor motor;
+        private final int priority;
+        private final double minAmps;
+        private final double maxAmps;
+        private double target;
+        private double applied;
+        private long lastChangeTime;
+
+        private Member(Motor motor, int priority, double minAmps, double maxAmps) {
+            this.motor = motor;
+            this.priority = priority;
+            this.minAmps = minAmps;
+            this.maxAmps = maxAmps;
+            // register() has just set the limit to the maximum.
+            this.applied = maxAmps;
+            this.target = maxAmps;
+        }
+
+        private void apply(long now) {
+            double limit = Math.round(target);
+            motor.configureAsync(m -> m.setCurrentLimit(limit));
+            applied = limit;
+            lastChangeTime = now;
+        }
+    }
+}
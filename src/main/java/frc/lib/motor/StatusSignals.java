@@ -0,0 +1,131 @@
+package frc.lib.motor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
+
+/**
+ * A registry of every Phoenix status signal read by the robot.
+ * <p>
+ * Signals are refreshed together once per loop by {@link #refreshAll()}, which
+ * should be called at the start of robotPeriodic. Between refreshes, reading a
+ * registered signal returns its cached sample, so every motor getter in a loop
+ * sees values from the same refresh.
+ */
+public final class StatusSignals {
+    private static final Map<String, List<BaseStatusSignal>> signals = new LinkedHashMap<>();
+    private static final Map<String, DeviceStats> busStats = new LinkedHashMap<>();
+    private static volatile BaseStatusSignal[][] groups = new BaseStatusSignal[0][];
+    private static volatile DeviceStats[] groupStats = new DeviceStats[0];
+
+    private StatusSignals() {}
+
+    /**
+     * Registers signals to be refreshed every loop, and sets how often the
+     * device sends them.
+     *
+     * @param bus   The CAN bus the signals' device is on.
+     * @param hz    The update frequency, in hertz.
+     * @param toAdd The signals to register.
+     */
+    public static synchronized void register(String bus, double hz, BaseStatusSignal... toAdd) {
+        BaseStatusSignal.setUpdateFrequencyForAll(hz, toAdd);
+        List<BaseStatusSignal> busSignals = signals.computeIfAbsent(bus, k -> new ArrayList<>());
+        for (BaseStatusSignal signal : toAdd) {
+            if (!busSignals.contains(signal)) {
+                busSignals.add(signal);
+            }
+        }
+
+        busStats.computeIfAbsent(bus, k -> new DeviceStats(k, -1, "refresh"));
+        publishGroups();
+    }
+
+    /**
+     * Stops refreshing signals, e.g. because a control thread refreshes them
+     * instead. Their update frequency is left as it is.
+     *
+     * @param bus      The CAN bus the signals' device is on.
+     * @param toRemove The signals to unregister.
+     */
+    public static synchronized void unregister(String bus, BaseStatusSignal... toRemove) {
+        List<BaseStatusSignal> busSignals = signals.get(bus);
+        if (busSignals == null) {
+            return;
+        }
+        busSignals.removeAll(Arrays.asList(toRemove));
+        if (busSignals.isEmpty()) {
+            signals.remove(bus);
+        }
+        publishGroups();
+    }
+
+    /**
+     * Stops refreshing every signal. Called when a
+     * {@link frc.lib.sim.SimHarness} closes, so the next robot only refreshes
+     * its own signals.
+     */
+    public static synchronized void removeAll() {
+        signals.clear();
+        busStats.clear();
+        publishGroups();
+    }
+
+    private static void publishGroups() {
+        BaseStatusSignal[][] newGroups = new BaseStatusSignal[signals.size()][];
+        DeviceStats[] newStats = new DeviceStats[signals.size()];
+        int i = 0;
+        for (Map.Entry<String, List<BaseStatusSignal>> group : signals.entrySet()) {
+            newGroups[i] = group.getValue().toArray(new BaseStatusSignal[0]);
+            newStats[i++] = busStats.get(group.getKey());
+        }
+        groupStats = newStats;
+        groups = newGroups;
+    }
+
+    /**
+     * Sets how often the device sends a signal.
+     *
+     * @param signal The signal.
+     * @param hz     The update frequency, in hertz. Zero disables the signal.
+     */
+    public static void setUpdateFrequency(BaseStatusSignal signal, double hz) {
+        signal.setUpdateFrequency(hz);
+    }
+
+    /**
+     * Refreshes every registered signal, one non-blocking call per CAN bus. Each
+     * bus's refreshes are recorded as reads in a {@link DeviceStats} of type
+     * "refresh" with ID -1.
+     */
+    public static void refreshAll() {
+        BaseStatusSignal[][] current = groups;
+        DeviceStats[] stats = groupStats;
+        for (int i = 0; i < current.length; i++) {
+            long start = System.nanoTime();
+            StatusCode code = BaseStatusSignal.refreshAll(current[i]);
+            stats[i].recordRead(System.nanoTime() - start);
+            if (!code.isOK()) {
+                stats[i].recordError(code.name());
+            }
+        }
+    }
+
+    /**
+     * Waits for a new sample of every registered signal, up to a timeout per CAN
+     * bus. Useful to synchronize the loop to a CANivore's updates.
+     *
+     * @param timeoutSeconds The maximum time to wait per bus, in seconds.
+     */
+    public static void waitForAll(double timeoutSeconds) {
+        BaseStatusSignal[][] current = groups;
+        for (int i = 0; i < current.length; i++) {
+            BaseStatusSignal.waitForAll(timeoutSeconds, current[i]);
+        }
+    }
+}
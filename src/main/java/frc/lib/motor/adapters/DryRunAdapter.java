@@ -0,0 +1,135 @@
+package frc.lib.motor.adapters;
+
+import frc.lib.motor.DeviceStats;
+import frc.lib.motor.MotorAdapter;
+import frc.lib.motor.MotorConfig;
+import frc.lib.motor.Motor.Control;
+import frc.lib.motor.Motor.Usage;
+import edu.wpi.first.wpilibj.motorcontrol.MotorController;
+
+/**
+ * Stands in for a motor's controller and adapter while code is exercised
+ * without moving anything, e.g. during warm-up.
+ * <p>
+ * Readings come from the real adapter, which only reads cached status
+ * signals. Outputs and encoder resets are dropped, and configuration changes
+ * are kept so they can be applied to the real adapter afterwards (see
+ * {@link frc.lib.motor.Motor#setDryRun(boolean)}).
+ */
+public class DryRunAdapter implements MotorController, MotorAdapter {
+    private final MotorAdapter delegate;
+    private MotorConfig deferredConfig = new MotorConfig();
+    private double speed;
+
+    /**
+     * Wraps an adapter.
+     *
+     * @param delegate The real adapter.
+     */
+    public DryRunAdapter(MotorAdapter delegate) {
+      this.delegate = delegate;
+    }
+
+    /**
+     * Gets the real adapter.
+     *
+     * @return The real adapter.
+     */
+    public MotorAdapter getDelegate() {
+      return delegate;
+    }
+
+    public MotorAdapter unwrap() {
+      return delegate.unwrap();
+    }
+
+    /**
+     * Takes the configuration changes made while dry running, clearing them.
+     *
+     * @return The changes, merged, or null if there were none.
+     */
+    public MotorConfig takeDeferredConfig() {
+      if (deferredConfig.isEmpty()) {
+        return null;
+      }
+      MotorConfig changes = deferredConfig;
+      deferredConfig = new MotorConfig();
+      return changes;
+    }
+
+    public void set(double speed) {
+      this.speed = speed;
+    }
+
+    public void setVoltage(double outputVolts) {
+      this.speed = outputVolts / 12.0;
+    }
+
+    public double get() {
+      return speed;
+    }
+
+    public void setInverted(boolean isInverted) {
+      deferredConfig.inverted(isInverted);
+    }
+
+    public boolean getInverted() {
+      return delegate.isInverted();
+    }
+
+    public void disable() {
+      speed = 0;
+    }
+
+    public void stopMotor() {
+      speed = 0;
+    }
+
+    public void resetEncoder() {}
+
+    public MotorConfig applyConfig(MotorConfig changes) {
+      deferredConfig.merge(changes);
+      // Nothing reaches the device until the dry run ends.
+      return new MotorConfig();
+    }
+
+    public void setReference(double reference, Control controlType, int slot, double feedforward) {}
+
+    public void setUpdateFrequency(double hz) {}
+
+    public void setSignalFrequency(double positionHz, double velocityHz, double voltageHz) {}
+
+    public void setUsage(Usage usage) {}
+
+    public void refreshSignals() {
+      delegate.refreshSignals();
+    }
+
+    public void detachSignals() {
+      delegate.detachSignals();
+    }
+
+    public double getPosition() {
+      return delegate.getPosition();
+    }
+
+    public double getVelocity() {
+      return delegate.getVelocity();
+    }
+
+    public double getVoltage() {
+      return delegate.getVoltage();
+    }
+
+    public boolean isInverted() {
+      return delegate.isInverted();
+    }
+
+    public DeviceStats getStats() {
+      return delegate.getStats();
+    }
+
+    public MotorConfig readConfig() {
+      return delegate.readConfig();
+    }
+}
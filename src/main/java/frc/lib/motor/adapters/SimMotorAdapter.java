@@ -0,0 +1,345 @@
+package frc.lib.motor.adapters;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.motorcontrol.MotorController;
+import edu.wpi.first.wpilibj.simulation.DCMotorSim;
+import edu.wpi.first.wpilibj.simulation.SingleJointedArmSim;
+import frc.lib.motor.DeviceStats;
+import frc.lib.motor.MotorAdapter;
+import frc.lib.motor.MotorConfig;
+import frc.lib.motor.Motor.Control;
+import frc.lib.motor.MotorConfig.Setting;
+import frc.lib.util.PID;
+import frc.lib.util.SoftwarePID;
+
+/**
+ * A simulated motor controller, backed by a WPILib physics sim of the
+ * mechanism it drives.
+ * <p>
+ * Acts as both the MotorController and the MotorAdapter of a {@link
+ * frc.lib.motor.Motor}. Position is in mechanism rotations and velocity in
+ * mechanism rotations per second. Closed-loop gains work like a Spark's: the
+ * PID outputs a duty cycle, scaled by the nominal 12 V, and the feedforward is
+ * added in volts. Soft limits and current limits are applied to the output.
+ * <p>
+ * Every instance is stepped by {@link #updateAll(double)}, which Robot calls
+ * from simulationPeriodic, until {@link #removeAll()} forgets them.
+ */
+public class SimMotorAdapter implements MotorController, MotorAdapter {
+    private static final double NOMINAL_VOLTAGE = 12.0;
+    private static final double DEFAULT_MOI = 0.001;
+    private static final Control[] CONTROLS = Control.values();
+    // Mode is a Control ordinal, or DUTY_CYCLE.
+    private static final int DUTY_CYCLE = -1;
+    private static final List<SimMotorAdapter> all = new ArrayList<>();
+
+    private final DCMotor gearbox;
+    private final double gearing;
+    private final DCMotorSim motorSim;
+    private final SingleJointedArmSim armSim;
+    private final DeviceStats stats;
+
+    private final MotorConfig config = new MotorConfig();
+    private SoftwarePID controller;
+
+    private int mode = DUTY_CYCLE;
+    private double demand;
+    private double feedforward;
+    private double positionOffset;
+    private double appliedVoltage;
+    private boolean inverted;
+
+    private SimMotorAdapter(int id, String type, DCMotor gearbox, double gearing, DCMotorSim motorSim, SingleJointedArmSim armSim) {
+      this.gearbox = gearbox;
+      this.gearing = gearing;
+      this.motorSim = motorSim;
+      this.armSim = armSim;
+      this.stats = new DeviceStats("sim", id, type);
+      all.add(this);
+    }
+
+    /**
+     * Creates a simulated motor driving a free-spinning load.
+     *
+     * @param id      The CAN ID the motor stands in for, used to tag its stats.
+     * @param gearbox The motor(s), e.g. {@code DCMotor.getKrakenX60(1)}.
+     * @param gearing The reduction from motor to mechanism (greater than 1 is a
+     *                reduction).
+     * @param moiKgM2 The mechanism's moment of inertia, in kg m^2.
+     * @return The simulated motor.
+     */
+    public static SimMotorAdapter flywheel(int id, DCMotor gearbox, double gearing, double moiKgM2) {
+      return new SimMotorAdapter(id, "DCMotorSim", gearbox, gearing, new DCMotorSim(gearbox, gearing, moiKgM2), null);
+    }
+
+    /**
+     * Creates a simulated motor driving a single-jointed arm, which stops at its
+     * angle limits and optionally feels gravity.
+     *
+     * @param id              The CAN ID the motor stands in for.
+     * @param gearbox         The motor(s), e.g. {@code DCMotor.getNEO(1)}.
+     * @param gearing         The reduction from motor to arm.
+     * @param moiKgM2         The arm's moment of inertia, in kg m^2.
+     * @param armLengthMeters The arm's length, in meters.
+     * @param minRotations    The lowest arm angle, in rotations.
+     * @param maxRotations    The highest arm angle, in rotations.
+     * @param simulateGravity Whether gravity acts on the arm.
+     * @return The simulated motor.
+     */
+    public static SimMotorAdapter arm(int id, DCMotor gearbox, double gearing, double moiKgM2, double armLengthMeters,
+        double minRotations, double maxRotations, boolean simulateGravity) {
+      double min = minRotations * 2 * Math.PI;
+      double max = maxRotations * 2 * Math.PI;
+      return new SimMotorAdapter(id, "SingleJointedArmSim", gearbox, gearing, null,
+          new SingleJointedArmSim(gearbox, gearing, moiKgM2, armLengthMeters, min, max, simulateGravity, min));
+    }
+
+    /**
+     * Creates a simulated kraken (Kraken X60) with no reduction and a light load.
+     *
+     * @param id The CAN ID the motor stands in for.
+     * @return The simulated motor.
+     */
+    public static SimMotorAdapter kraken(int id) {
+      return flywheel(id, DCMotor.getKrakenX60(1), 1, DEFAULT_MOI);
+    }
+
+    /**
+     * Creates a simulated falcon (Falcon 500) with no reduction and a light load.
+     *
+     * @param id The CAN ID the motor stands in for.
+     * @return The simulated motor.
+     */
+    public static SimMotorAdapter falcon(int id) {
+      return flywheel(id, DCMotor.getFalcon500(1), 1, DEFAULT_MOI);
+    }
+
+    /**
+     * Creates a simulated neo with no reduction and a light load.
+     *
+     * @param id The CAN ID the motor stands in for.
+     * @return The simulated motor.
+     */
+    public static SimMotorAdapter neo(int id) {
+      return flywheel(id, DCMotor.getNEO(1), 1, DEFAULT_MOI);
+    }
+
+    /**
+     * Steps every simulated motor.
+     *
+     * @param dtSeconds The time step, in seconds.
+     */
+    public static void updateAll(double dtSeconds) {
+      for (int i = 0; i < all.size(); i++) {
+        all.get(i).update(dtSeconds);
+      }
+    }
+
+    /**
+     * Steps the simulation: computes the output for the current control mode,
+     * applies limits, and advances the physics.
+     *
+     * @param dtSeconds The time step, in seconds.
+     */
+    public void update(double dtSeconds) {
+      double voltage = switch (mode) {
+        case DUTY_CYCLE -> demand * NOMINAL_VOLTAGE;
+        default -> switch (CONTROLS[mode]) {
+          case VOLTAGE -> demand + feedforward;
+          case POSITION -> closedLoop(getPosition(), dtSeconds) + feedforward;
+          case VELOCITY -> closedLoop(getVelocity(), dtSeconds) + feedforward;
+        };
+      };
+      double position = getPosition();
+      if (config.has(Setting.FORWARD_LIMIT) && voltage > 0 && position >= config.get(Setting.FORWARD_LIMIT)) {
+        voltage = 0;
+      }
+      if (config.has(Setting.BACK_LIMIT) && voltage < 0 && position <= config.get(Setting.BACK_LIMIT)) {
+        voltage = 0;
+      }
+      voltage = Math.max(-NOMINAL_VOLTAGE, Math.min(NOMINAL_VOLTAGE, voltage));
+      voltage = limitCurrent(voltage);
+
+      appliedVoltage = voltage;
+      // Inversion flips the motor's direction along with its sensor.
+      double mechanismVoltage = inverted ? -voltage : voltage;
+      if (motorSim != null) {
+        motorSim.setInputVoltage(mechanismVoltage);
+        motorSim.update(dtSeconds);
+      } else {
+        armSim.setInputVoltage(mechanismVoltage);
+        armSim.update(dtSeconds);
+      }
+    }
+
+    private double closedLoop(double measurement, double dtSeconds) {
+      if (controller == null) {
+        return 0;
+      }
+      controller.setPeriod(dtSeconds);
+      return controller.calculate(measurement, demand) * NOMINAL_VOLTAGE;
+    }
+
+    // Lowers the voltage until the stator current (and the supply current,
+    // approximated as stator current times duty cycle) is within its limit.
+    private double limitCurrent(double voltage) {
+      double limit = Double.POSITIVE_INFINITY;
+      if (config.has(Setting.STATOR_CURRENT_LIMIT)) {
+        limit = config.get(Setting.STATOR_CURRENT_LIMIT);
+      }
+      if (config.has(Setting.SUPPLY_CURRENT_LIMIT) && voltage != 0) {
+        limit = Math.min(limit, config.get(Setting.SUPPLY_CURRENT_LIMIT) * NOMINAL_VOLTAGE / Math.abs(voltage));
+      }
+      if (Double.isInfinite(limit)) {
+        return voltage;
+      }
+      double motorSpeed = getVelocity() * 2 * Math.PI * gearing;
+      double current = gearbox.getCurrent(motorSpeed, voltage);
+      if (Math.abs(current) <= limit) {
+        return voltage;
+      }
+      return gearbox.getVoltage(gearbox.getTorque(Math.copySign(limit, current)), motorSpeed);
+    }
+
+    private double rawPosition() {
+      double position = (motorSim != null ? motorSim.getAngularPositionRad() : armSim.getAngleRads()) / (2 * Math.PI);
+      return inverted ? -position : position;
+    }
+
+    private double rawVelocityRadPerSec() {
+      return motorSim != null ? motorSim.getAngularVelocityRadPerSec() : armSim.getVelocityRadPerSec();
+    }
+
+    /**
+     * Gets the current drawn by the motor(s).
+     *
+     * @return The current, in amps.
+     */
+    public double getCurrent() {
+      return motorSim != null ? motorSim.getCurrentDrawAmps() : armSim.getCurrentDrawAmps();
+    }
+
+    /**
+     * Gets the current drawn from the battery, approximated as the motor
+     * current times the duty cycle.
+     *
+     * @return The supply current, in amps.
+     */
+    public double getSupplyCurrent() {
+      return Math.abs(getCurrent() * appliedVoltage / NOMINAL_VOLTAGE);
+    }
+
+    /**
+     * Forgets every simulated motor, so they are no longer stepped or counted.
+     * Called when a {@link frc.lib.sim.SimHarness} closes, so the next robot
+     * only simulates its own motors.
+     */
+    public static void removeAll() {
+      all.clear();
+    }
+
+    /**
+     * Gets the total current every simulated motor draws from the battery.
+     *
+     * @return The supply current, in amps.
+     */
+    public static double getTotalSupplyCurrent() {
+      double total = 0;
+      for (int i = 0; i < all.size(); i++) {
+        total += all.get(i).getSupplyCurrent();
+      }
+      return total;
+    }
+
+    public void set(double speed) {
+      mode = DUTY_CYCLE;
+      demand = speed;
+      feedforward = 0;
+    }
+
+    public void setVoltage(double outputVolts) {
+      mode = Control.VOLTAGE.ordinal();
+      demand = outputVolts;
+      feedforward = 0;
+    }
+
+    public double get() {
+      return appliedVoltage / NOMINAL_VOLTAGE;
+    }
+
+    public void setInverted(boolean isInverted) {
+      inverted = isInverted;
+      config.inverted(isInverted);
+    }
+
+    public boolean getInverted() {
+      return inverted;
+    }
+
+    public void disable() {
+      stopMotor();
+    }
+
+    public void stopMotor() {
+      set(0);
+    }
+
+    public void setReference(double reference, Control controlType, int slot, double feedforward) {
+      if (controller != null && mode != controlType.ordinal()) {
+        controller.reset();
+      }
+      mode = controlType.ordinal();
+      demand = reference;
+      this.feedforward = feedforward;
+    }
+
+    public MotorConfig applyConfig(MotorConfig changes) {
+      config.merge(changes);
+      if (changes.has(Setting.INVERTED)) {
+        inverted = changes.get(Setting.INVERTED) != 0;
+      }
+      if (config.has(Setting.P) && config.has(Setting.I) && config.has(Setting.D)) {
+        controller = new SoftwarePID(new PID(
+            config.get(Setting.P), config.get(Setting.I), config.get(Setting.D),
+            orElse(Setting.F, 0), orElse(Setting.I_ZONE, Double.POSITIVE_INFINITY),
+            orElse(Setting.MAX_OUTPUT, 1), orElse(Setting.MIN_OUTPUT, -1), orElse(Setting.D_FILTER, 0)), -1, 1);
+      }
+      return changes;
+    }
+
+    private double orElse(Setting setting, double fallback) {
+      return config.has(setting) ? config.get(setting) : fallback;
+    }
+
+    public double getPosition() {
+      return rawPosition() - positionOffset;
+    }
+
+    public double getVelocity() {
+      double velocity = rawVelocityRadPerSec() / (2 * Math.PI);
+      return inverted ? -velocity : velocity;
+    }
+
+    public double getVoltage() {
+      return appliedVoltage;
+    }
+
+    public boolean isInverted() {
+      return inverted;
+    }
+
+    public DeviceStats getStats() {
+      return stats;
+    }
+
+    public MotorConfig readConfig() {
+      return new MotorConfig().merge(config);
+    }
+
+    public void resetEncoder() {
+      positionOffset = rawPosition();
+    }
+}
@@ -1,77 +1,292 @@
 package frc.lib.motor.adapters;
 
 import com.revrobotics.CANSparkBase;
+import com.revrobotics.REVLibError;
+import com.revrobotics.RelativeEncoder;
 import com.revrobotics.SparkPIDController;
 
+import frc.lib.motor.DeviceStats;
 import frc.lib.motor.MotorAdapter;
+import frc.lib.motor.MotorConfig;
 import frc.lib.motor.Motor.Control;
-import frc.lib.util.PID;
+import frc.lib.motor.Motor.Usage;
+import frc.lib.motor.MotorConfig.Setting;
+import frc.lib.util.SeqLock;
+import edu.wpi.first.wpilibj.RobotController;
 
 import com.revrobotics.CANSparkBase.ControlType;
 import com.revrobotics.CANSparkBase.SoftLimitDirection;
+import com.revrobotics.CANSparkLowLevel.PeriodicFrame;
 
 
 public class SparkBaseAdapter implements MotorAdapter {
+    // Periodic frame period for frames nothing reads, in ms (the maximum).
+    private static final int UNUSED_FRAME_MS = 65535;
+
+    /** The index of each value in a sample (see {@link #getSample(double[])}). */
+    public static final int SAMPLE_POSITION = 0;
+    public static final int SAMPLE_VELOCITY = 1;
+    public static final int SAMPLE_VOLTAGE = 2;
+    public static final int SAMPLE_CURRENT = 3;
+    public static final int SAMPLE_TIME = 4;
+    public static final int SAMPLE_SIZE = 5;
+
     private CANSparkBase motor;
+    private final DeviceStats stats;
+    private RelativeEncoder encoder;
+    private SparkPIDController pidController;
+    private double minOutput = -1;
+    private double maxOutput = 1;
+    // Written by the SparkSampler's thread while it runs; null if not sampled.
+    private volatile SeqLock sample;
 
     public SparkBaseAdapter(CANSparkBase motor) {
       this.motor = motor;
+      this.stats = new DeviceStats(null, motor.getDeviceId(), "SparkBase");
+      this.encoder = motor.getEncoder();
+      this.pidController = motor.getPIDController();
+    }
+
+    private boolean check(REVLibError error) {
+      if (error != REVLibError.kOk) {
+        stats.recordError(error.name());
+        return false;
+      }
+      return true;
+    }
+
+    // Adds a setting to the applied config if the device accepted it.
+    private void record(MotorConfig applied, MotorConfig changes, Setting setting, boolean ok) {
+      if (ok) {
+        applied.set(setting, changes.get(setting));
+      }
+    }
+
+    // Status 1 carries velocity and voltage, status 2 position.
+    public void setSignalFrequency(double positionHz, double velocityHz, double voltageHz) {
+      check(motor.setPeriodicFramePeriod(PeriodicFrame.kStatus1, framePeriod(Math.max(velocityHz, voltageHz))));
+      check(motor.setPeriodicFramePeriod(PeriodicFrame.kStatus2, framePeriod(positionHz)));
+    }
+
+    private static int framePeriod(double hz) {
+      return hz <= 0 ? UNUSED_FRAME_MS : (int) Math.max(1, Math.min(UNUSED_FRAME_MS, Math.round(1000 / hz)));
     }
 
-    public void setPID(PID pid) {
-      SparkPIDController pidController = motor.getPIDController();
-      pidController.setP(pid.getP().orElse(0.0));
-      pidController.setI(pid.getI().orElse(0.0));
-      pidController.setD(pid.getD().orElse(0.0));
+    public void setUsage(Usage usage) {
+      // Status 0 (applied output, faults) is left at its default since followers rely on it.
+      check(motor.setPeriodicFramePeriod(PeriodicFrame.kStatus1, switch (usage) {
+        case VELOCITY, ALL -> 20;
+        case POSITION -> 100;
+        case OPEN_LOOP -> 250;
+      }));
+      check(motor.setPeriodicFramePeriod(PeriodicFrame.kStatus2, switch (usage) {
+        case POSITION, ALL -> 20;
+        case VELOCITY, OPEN_LOOP -> 500;
+      }));
+      boolean all = usage == Usage.ALL;
+      check(motor.setPeriodicFramePeriod(PeriodicFrame.kStatus3, all ? 50 : UNUSED_FRAME_MS));
+      check(motor.setPeriodicFramePeriod(PeriodicFrame.kStatus4, all ? 20 : UNUSED_FRAME_MS));
+      check(motor.setPeriodicFramePeriod(PeriodicFrame.kStatus5, all ? 200 : UNUSED_FRAME_MS));
+      check(motor.setPeriodicFramePeriod(PeriodicFrame.kStatus6, all ? 200 : UNUSED_FRAME_MS));
     }
 
-    public void setReference(double reference, Control controlType) {
-      motor.getPIDController().setReference(reference,
+    public MotorConfig applyConfig(MotorConfig changes) {
+      MotorConfig applied = new MotorConfig();
+      if (changes.has(Setting.P)) {
+        record(applied, changes, Setting.P, check(pidController.setP(changes.get(Setting.P))));
+      }
+      if (changes.has(Setting.I)) {
+        record(applied, changes, Setting.I, check(pidController.setI(changes.get(Setting.I))));
+      }
+      if (changes.has(Setting.D)) {
+        record(applied, changes, Setting.D, check(pidController.setD(changes.get(Setting.D))));
+      }
+      if (changes.has(Setting.F)) {
+        record(applied, changes, Setting.F, check(pidController.setFF(changes.get(Setting.F))));
+      }
+      if (changes.has(Setting.I_ZONE)) {
+        record(applied, changes, Setting.I_ZONE, check(pidController.setIZone(changes.get(Setting.I_ZONE))));
+      }
+      if (changes.has(Setting.D_FILTER)) {
+        record(applied, changes, Setting.D_FILTER, check(pidController.setDFilter(changes.get(Setting.D_FILTER))));
+      }
+      if (changes.has(Setting.MIN_OUTPUT) || changes.has(Setting.MAX_OUTPUT)) {
+        double min = changes.has(Setting.MIN_OUTPUT) ? changes.get(Setting.MIN_OUTPUT) : minOutput;
+        double max = changes.has(Setting.MAX_OUTPUT) ? changes.get(Setting.MAX_OUTPUT) : maxOutput;
+        if (check(pidController.setOutputRange(min, max))) {
+          minOutput = min;
+          maxOutput = max;
+          applied.set(Setting.MIN_OUTPUT, min).set(Setting.MAX_OUTPUT, max);
+        }
+      }
+      if (changes.has(Setting.SUPPLY_CURRENT_LIMIT)) {
+        record(applied, changes, Setting.SUPPLY_CURRENT_LIMIT,
+            check(motor.setSmartCurrentLimit((int) changes.get(Setting.SUPPLY_CURRENT_LIMIT))));
+      }
+      if (changes.has(Setting.STATOR_CURRENT_LIMIT)) {
+        // The smart limit already carries the supply limit; the secondary limit caps phase current.
+        record(applied, changes, Setting.STATOR_CURRENT_LIMIT,
+            check(motor.setSecondaryCurrentLimit(changes.get(Setting.STATOR_CURRENT_LIMIT))));
+      }
+      if (changes.has(Setting.FORWARD_LIMIT)) {
+        record(applied, changes, Setting.FORWARD_LIMIT,
+            check(motor.setSoftLimit(SoftLimitDirection.kForward, (float) changes.get(Setting.FORWARD_LIMIT)))
+                & check(motor.enableSoftLimit(SoftLimitDirection.kForward, true)));
+      }
+      if (changes.has(Setting.BACK_LIMIT)) {
+        record(applied, changes, Setting.BACK_LIMIT,
+            check(motor.setSoftLimit(SoftLimitDirection.kReverse, (float) changes.get(Setting.BACK_LIMIT)))
+                & check(motor.enableSoftLimit(SoftLimitDirection.kReverse, true)));
+      }
+      if (changes.has(Setting.INVERTED)) {
+        motor.setInverted(changes.get(Setting.INVERTED) != 0);
+        applied.set(Setting.INVERTED, changes.get(Setting.INVERTED));
+      }
+      return applied;
+    }
+
+    public void setReference(double reference, Control controlType, int slot, double feedforward) {
+      check(pidController.setReference(reference,
           switch (controlType) {
             case POSITION -> ControlType.kPosition;
             case VELOCITY -> ControlType.kVelocity;
             case VOLTAGE -> ControlType.kVoltage;
-          });
+          }, slot, feedforward));
+    }
+
+    public boolean canFollow(MotorAdapter leader) {
+      return leader instanceof SparkBaseAdapter;
+    }
+
+    public void follow(MotorAdapter leader, boolean opposed) {
+      check(motor.follow(((SparkBaseAdapter) leader).motor, opposed));
     }
 
     public double getPosition() {
-      return motor.getEncoder().getPosition();
+      SeqLock current = sample;
+      return current == null ? encoder.getPosition() : current.read(SAMPLE_POSITION);
     }
 
     public double getVelocity() {
-      return motor.getEncoder().getVelocity();
+      SeqLock current = sample;
+      return current == null ? encoder.getVelocity() : current.read(SAMPLE_VELOCITY);
     }
 
     public double getVoltage() {
-      return motor.getBusVoltage() * motor.getAppliedOutput();
+      SeqLock current = sample;
+      return current == null ? motor.getBusVoltage() * motor.getAppliedOutput() : current.read(SAMPLE_VOLTAGE);
     }
 
-    public void setInverted(boolean toInvert) {
-      motor.setInverted(toInvert);
+    /**
+     * Gets the motor's output current.
+     *
+     * @return The current, in amps.
+     */
+    public double getCurrent() {
+      SeqLock current = sample;
+      return current == null ? motor.getOutputCurrent() : current.read(SAMPLE_CURRENT);
     }
 
-    public boolean isInverted() {
-      return motor.getInverted();
+    /**
+     * Gets whether the signals are read by a {@link SparkSampler}.
+     *
+     * @return Whether the motor is sampled.
+     */
+    public boolean isSampled() {
+      return sample != null;
+    }
+
+    /**
+     * Copies the position, velocity, applied voltage, output current and
+     * time (FPGA microseconds) of one sample, all read together, at the
+     * SAMPLE_ indices. Without a sampler, reads them now.
+     *
+     * @param destination The array to copy into; must be at least
+     *                    {@link #SAMPLE_SIZE} long.
+     */
+    public void getSample(double[] destination) {
+      SeqLock current = sample;
+      if (current != null) {
+        current.read(destination);
+        return;
+      }
+      destination[SAMPLE_POSITION] = encoder.getPosition();
+      destination[SAMPLE_VELOCITY] = encoder.getVelocity();
+      destination[SAMPLE_VOLTAGE] = motor.getBusVoltage() * motor.getAppliedOutput();
+      destination[SAMPLE_CURRENT] = motor.getOutputCurrent();
+      destination[SAMPLE_TIME] = RobotController.getFPGATime();
+    }
+
+    // Takes the first sample on the calling thread, before the sampler's
+    // thread can see this adapter, so getters never return an empty sample.
+    void startSampling() {
+      SeqLock first = new SeqLock(SAMPLE_SIZE);
+      write(first);
+      sample = first;
+    }
+
+    // Goes back to reading the signals directly.
+    void stopSampling() {
+      sample = null;
     }
 
-    public void setCurrentLimit(double limit) {
-      motor.setSmartCurrentLimit((int) limit);
+    // Called by the SparkSampler's thread, which may still run once after
+    // sampling stops.
+    void sample() {
+      SeqLock current = sample;
+      if (current != null) {
+        write(current);
+      }
     }
 
-    public void setForwardLimit(double forward) {
-      motor.setSoftLimit(SoftLimitDirection.kForward, (float) forward);
+    // The JNI reads happen before the write starts, so readers spin as
+    // briefly as possible.
+    private void write(SeqLock lock) {
+      double position = encoder.getPosition();
+      double velocity = encoder.getVelocity();
+      double voltage = motor.getBusVoltage() * motor.getAppliedOutput();
+      double current = motor.getOutputCurrent();
+      double time = RobotController.getFPGATime();
+      lock.beginWrite();
+      lock.set(SAMPLE_POSITION, position);
+      lock.set(SAMPLE_VELOCITY, velocity);
+      lock.set(SAMPLE_VOLTAGE, voltage);
+      lock.set(SAMPLE_CURRENT, current);
+      lock.set(SAMPLE_TIME, time);
+      lock.endWrite();
+    }
+
+    public boolean isInverted() {
+      return motor.getInverted();
     }
 
-    public void setBackLimit(double back) {
-      motor.setSoftLimit(SoftLimitDirection.kReverse, (float) back);
+    public DeviceStats getStats() {
+      return stats;
     }
 
-    public void setSoftLimits(double forward, double back) {
-      setForwardLimit(forward);
-      setBackLimit(back);
+    public MotorConfig readConfig() {
+      // The smart current limit can't be read back, so it isn't included.
+      MotorConfig read = new MotorConfig()
+          .set(Setting.P, pidController.getP())
+          .set(Setting.I, pidController.getI())
+          .set(Setting.D, pidController.getD())
+          .set(Setting.F, pidController.getFF())
+          .set(Setting.I_ZONE, pidController.getIZone())
+          .set(Setting.D_FILTER, pidController.getDFilter(0))
+          .set(Setting.MIN_OUTPUT, pidController.getOutputMin())
+          .set(Setting.MAX_OUTPUT, pidController.getOutputMax())
+          .inverted(motor.getInverted());
+      if (motor.isSoftLimitEnabled(SoftLimitDirection.kForward)) {
+        read.set(Setting.FORWARD_LIMIT, motor.getSoftLimit(SoftLimitDirection.kForward));
+      }
+      if (motor.isSoftLimitEnabled(SoftLimitDirection.kReverse)) {
+        read.set(Setting.BACK_LIMIT, motor.getSoftLimit(SoftLimitDirection.kReverse));
+      }
+      return read;
     }
 
+    // When sampled, the position reads the old value until the next sample.
     public void resetEncoder() {
-      motor.getEncoder().setPosition(0);
+      check(encoder.setPosition(0));
     }
 }
\ No newline at end of file
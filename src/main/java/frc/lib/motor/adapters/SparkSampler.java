@@ -0,0 +1,135 @@
+package frc.lib.motor.adapters;
+
+import java.util.Arrays;
+
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.lib.motor.Motor;
+import frc.lib.telemetry.Telemetry;
+
+/**
+ * Reads the signals of Spark motor controllers on a background thread, so
+ * the main loop reads memory instead of making JNI calls.
+ * <p>
+ * Each loop, the sampler reads the position, velocity, applied voltage and
+ * output current of every added Spark and publishes them together, with a
+ * timestamp, through a {@link frc.lib.util.SeqLock}. The Spark's getters then
+ * return the latest sample, however many times they are called per loop,
+ * while the sampler runs; once it stops, they read the Spark directly again.
+ * <p>
+ * A sample is only as fresh as the status frames behind it, whose periods
+ * depend on the motor's usage (see {@link SparkBaseAdapter#setUsage}).
+ * Status 1 (velocity, voltage and current) comes every 20 ms with VELOCITY
+ * or ALL, but every 100 ms with POSITION and 250 ms with OPEN_LOOP. Status 2
+ * (position) comes every 20 ms with POSITION or ALL, but every 500 ms with
+ * VELOCITY and OPEN_LOOP. Sampling at 100 Hz or so adds little delay to the
+ * 20 ms frames; for the slower ones, e.g. the current of an OPEN_LOOP motor,
+ * the sampled value is as stale as the frame. The sampler's loop time is
+ * published under "spark sampler" in the SmartDashboard table.
+ */
+public class SparkSampler {
+    private final String name;
+    private final double period;
+    private final Notifier notifier;
+    private final Telemetry.DoubleEntry durationEntry;
+
+    private volatile SparkBaseAdapter[] sparks = new SparkBaseAdapter[0];
+    private boolean running;
+    private long ticks;
+
+    /**
+     * Creates a sampler. It does not run until {@link #start()} is called.
+     *
+     * @param name The name of the thread, used for telemetry.
+     * @param hz   The sample rate, in hertz (e.g. 100).
+     */
+    public SparkSampler(String name, double hz) {
+        this.name = name;
+        this.period = 1.0 / hz;
+        this.notifier = new Notifier(this::run);
+        notifier.setName(name);
+        this.durationEntry = Telemetry.doubleEntry("spark sampler " + name + " loop time us").withTolerance(5);
+    }
+
+    /**
+     * Samples a motor's signals while the sampler runs, if it is on a Spark
+     * (possibly wrapped, e.g. for replay). Other motors, e.g. simulated ones,
+     * keep reading their signals directly.
+     *
+     * @param motor The motor.
+     * @return Whether the motor is sampled.
+     */
+    public synchronized boolean add(Motor motor) {
+        if (!(motor.getAdapter().unwrap() instanceof SparkBaseAdapter spark)) {
+            return false;
+        }
+        SparkBaseAdapter[] current = sparks;
+        if (Arrays.asList(current).contains(spark)) {
+            return true;
+        }
+        if (running) {
+            spark.startSampling();
+        }
+        SparkBaseAdapter[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = spark;
+        sparks = updated;
+        return true;
+    }
+
+    /**
+     * Gets the sample period.
+     *
+     * @return The period, in seconds.
+     */
+    public double getPeriod() {
+        return period;
+    }
+
+    /**
+     * Starts the thread.
+     *
+     * @return The sampler, allowing for method chaining.
+     */
+    public synchronized SparkSampler start() {
+        if (!running) {
+            running = true;
+            for (SparkBaseAdapter spark : sparks) {
+                spark.startSampling();
+            }
+            notifier.startPeriodic(period);
+        }
+        return this;
+    }
+
+    /**
+     * Stops the thread. The Sparks go back to reading their signals directly,
+     * rather than returning their last sample.
+     */
+    public synchronized void stop() {
+        if (running) {
+            running = false;
+            notifier.stop();
+            for (SparkBaseAdapter spark : sparks) {
+                spark.stopSampling();
+            }
+        }
+    }
+
+    private void run() {
+        long start = RobotController.getFPGATime();
+        SparkBaseAdapter[] current = sparks;
+        for (int i = 0; i < current.length; i++) {
+            current[i].sample();
+        }
+
+        // Publish about once a second.
+        if (++ticks % Math.max(1, (long) (1 / period)) == 0) {
+            durationEntry.set(RobotController.getFPGATime() - start);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SparkSampler(" + name + ", " + (1 / period) + " Hz)";
+    }
+}
@@ -1,95 +1,222 @@
 package frc.lib.motor.adapters;
 
-import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
-import com.ctre.phoenix6.configs.SoftwareLimitSwitchConfigs;
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.Follower;
 import com.ctre.phoenix6.controls.PositionVoltage;
 import com.ctre.phoenix6.controls.VelocityVoltage;
 import com.ctre.phoenix6.controls.VoltageOut;
 import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.InvertedValue;
 
+import frc.lib.motor.DeviceStats;
 import frc.lib.motor.MotorAdapter;
+import frc.lib.motor.MotorConfig;
+import frc.lib.motor.StatusSignals;
 import frc.lib.motor.Motor.Control;
-import frc.lib.util.PID;
+import frc.lib.motor.Motor.Usage;
+import frc.lib.motor.MotorConfig.Setting;
 
 public class TalonFXAdapter implements MotorAdapter {
+    private static final double DEFAULT_SIGNAL_HZ = 100;
+    private static final Setting[] SUPPORTED = {
+        Setting.P, Setting.I, Setting.D, Setting.F, Setting.MIN_OUTPUT, Setting.MAX_OUTPUT,
+        Setting.SUPPLY_CURRENT_LIMIT, Setting.STATOR_CURRENT_LIMIT,
+        Setting.FORWARD_LIMIT, Setting.BACK_LIMIT, Setting.INVERTED
+    };
+
     private TalonFX motor;
+    private final DeviceStats stats;
+
+    // Refreshed together once per loop by StatusSignals.refreshAll(), or by
+    // refreshSignals() once the motor runs on a control thread.
+    private final StatusSignal<Double> position;
+    private final StatusSignal<Double> velocity;
+    private final StatusSignal<Double> voltage;
+
+    private final PositionVoltage positionRequest = new PositionVoltage(0);
+    private final VelocityVoltage velocityRequest = new VelocityVoltage(0);
+    private final VoltageOut voltageRequest = new VoltageOut(0);
+
+    // Shadow of the device's configuration, so one apply never resets the others.
+    private final TalonFXConfiguration config = new TalonFXConfiguration();
 
     public TalonFXAdapter(TalonFX motor) {
       this.motor = motor;
+      this.stats = new DeviceStats(motor.getNetwork(), motor.getDeviceID(), "TalonFX");
+      position = motor.getPosition();
+      velocity = motor.getVelocity();
+      voltage = motor.getMotorVoltage();
+    }
+
+    public void initialize() {
+      check(motor.getConfigurator().refresh(config));
+      StatusSignals.register(motor.getNetwork(), DEFAULT_SIGNAL_HZ, position, velocity, voltage);
+      check(motor.optimizeBusUtilization());
     }
 
-    public void setPID(PID pid) {
-      TalonFXConfiguration config = new TalonFXConfiguration();
-      config.Slot0.kP = pid.getP().orElse(0.0);
-      config.Slot0.kI = pid.getI().orElse(0.0);
-      config.Slot0.kD = pid.getD().orElse(0.0);
-      motor.getConfigurator().apply(config);
+    private boolean check(StatusCode code) {
+      if (!code.isOK()) {
+        stats.recordError(code.name());
+        return false;
+      }
+      return true;
     }
 
-    public void setReference(double reference, Control controlType) {
-      motor.setControl(
+    public MotorConfig applyConfig(MotorConfig changes) {
+      if (changes.has(Setting.P)) {
+        config.Slot0.kP = changes.get(Setting.P);
+      }
+      if (changes.has(Setting.I)) {
+        config.Slot0.kI = changes.get(Setting.I);
+      }
+      if (changes.has(Setting.D)) {
+        config.Slot0.kD = changes.get(Setting.D);
+      }
+      if (changes.has(Setting.F)) {
+        config.Slot0.kV = changes.get(Setting.F);
+      }
+      if (changes.has(Setting.SUPPLY_CURRENT_LIMIT)) {
+        config.CurrentLimits.SupplyCurrentLimit = changes.get(Setting.SUPPLY_CURRENT_LIMIT);
+        config.CurrentLimits.SupplyCurrentLimitEnable = true;
+      }
+      if (changes.has(Setting.STATOR_CURRENT_LIMIT)) {
+        config.CurrentLimits.StatorCurrentLimit = changes.get(Setting.STATOR_CURRENT_LIMIT);
+        config.CurrentLimits.StatorCurrentLimitEnable = true;
+      }
+      if (changes.has(Setting.FORWARD_LIMIT)) {
+        config.SoftwareLimitSwitch.ForwardSoftLimitThreshold = changes.get(Setting.FORWARD_LIMIT);
+        config.SoftwareLimitSwitch.ForwardSoftLimitEnable = true;
+      }
+      if (changes.has(Setting.BACK_LIMIT)) {
+        config.SoftwareLimitSwitch.ReverseSoftLimitThreshold = changes.get(Setting.BACK_LIMIT);
+        config.SoftwareLimitSwitch.ReverseSoftLimitEnable = true;
+      }
+      if (changes.has(Setting.MIN_OUTPUT)) {
+        config.MotorOutput.PeakReverseDutyCycle = changes.get(Setting.MIN_OUTPUT);
+      }
+      if (changes.has(Setting.MAX_OUTPUT)) {
+        config.MotorOutput.PeakForwardDutyCycle = changes.get(Setting.MAX_OUTPUT);
+      }
+      if (changes.has(Setting.INVERTED)) {
+        config.MotorOutput.Inverted = changes.get(Setting.INVERTED) != 0
+            ? InvertedValue.Clockwise_Positive
+            : InvertedValue.CounterClockwise_Positive;
+      }
+      // I zone and D filter have no TalonFX equivalent, so they are never reported as applied.
+      MotorConfig written = new MotorConfig();
+      for (Setting setting : SUPPORTED) {
+        if (changes.has(setting)) {
+          written.set(setting, changes.get(setting));
+        }
+      }
+      if (written.isEmpty()) {
+        return written;
+      }
+      // The whole configuration is applied at once, so it either all applies or none does.
+      return check(motor.getConfigurator().apply(config)) ? written : new MotorConfig();
+    }
+
+    public void setReference(double reference, Control controlType, int slot, double feedforward) {
+      check(motor.setControl(
           switch (controlType) {
-            case POSITION -> new PositionVoltage(reference);
-            case VELOCITY -> new VelocityVoltage(reference);
-            case VOLTAGE -> new VoltageOut(reference);
-          });
+            case POSITION -> positionRequest.withPosition(reference).withSlot(slot).withFeedForward(feedforward);
+            case VELOCITY -> velocityRequest.withVelocity(reference).withSlot(slot).withFeedForward(feedforward);
+            case VOLTAGE -> voltageRequest.withOutput(reference + feedforward);
+          }));
     }
 
-    public double getPosition() {
-      return motor.getPosition().getValueAsDouble();
+    public boolean canFollow(MotorAdapter leader) {
+      // Followers must be on the leader's bus.
+      return leader instanceof TalonFXAdapter talon && talon.stats.getBus().equals(stats.getBus());
     }
 
-    public double getVelocity() {
-      return motor.getVelocity().getValueAsDouble();
+    public void follow(MotorAdapter leader, boolean opposed) {
+      check(motor.setControl(new Follower(((TalonFXAdapter) leader).motor.getDeviceID(), opposed)));
     }
 
-    public double getVoltage() {
-      return motor.getMotorVoltage().getValueAsDouble();
+    public void setUpdateFrequency(double hz) {
+      positionRequest.withUpdateFreqHz(hz);
+      velocityRequest.withUpdateFreqHz(hz);
+      voltageRequest.withUpdateFreqHz(hz);
     }
 
-    public void setInverted(boolean toInvert) {
-      motor.setInverted(toInvert);
+    public void setSignalFrequency(double positionHz, double velocityHz, double voltageHz) {
+      StatusSignals.setUpdateFrequency(position, positionHz);
+      StatusSignals.setUpdateFrequency(velocity, velocityHz);
+      StatusSignals.setUpdateFrequency(voltage, voltageHz);
     }
 
-    public boolean isInverted() {
-      return motor.getInverted();
+    public void detachSignals() {
+      StatusSignals.unregister(motor.getNetwork(), position, velocity, voltage);
     }
 
-    public void setCurrentLimit(double limit) {
-      CurrentLimitsConfigs currentConfigs = new CurrentLimitsConfigs();
-      currentConfigs.SupplyCurrentLimit = limit;
-      currentConfigs.SupplyCurrentLimitEnable = true;
-      motor.getConfigurator().apply(currentConfigs);
+    public void refreshSignals() {
+      long start = System.nanoTime();
+      check(BaseStatusSignal.refreshAll(position, velocity, voltage));
+      stats.recordRead(System.nanoTime() - start);
     }
 
-    public void setStatorCurrentLimit(double limit) {
-      CurrentLimitsConfigs currentConfigs = new CurrentLimitsConfigs();
-      currentConfigs.StatorCurrentLimit = limit;
-      currentConfigs.StatorCurrentLimitEnable = true;
-      motor.getConfigurator().apply(currentConfigs);
+    public void setUsage(Usage usage) {
+      switch (usage) {
+        case POSITION -> setSignalFrequency(100, 100, 10);
+        case VELOCITY -> setSignalFrequency(4, 100, 10);
+        case OPEN_LOOP -> setSignalFrequency(4, 4, 50);
+        case ALL -> setSignalFrequency(100, 100, 100);
+      }
     }
 
-    public void setForwardLimit(double forward) {
-      SoftwareLimitSwitchConfigs configs = new SoftwareLimitSwitchConfigs();
-      configs.ForwardSoftLimitThreshold = forward;
-      configs.ForwardSoftLimitEnable = true;
-      motor.getConfigurator().apply(configs);
+    public double getPosition() {
+      return BaseStatusSignal.getLatencyCompensatedValue(position, velocity);
     }
 
-    public void setBackLimit(double back) {
-      SoftwareLimitSwitchConfigs configs = new SoftwareLimitSwitchConfigs();
-      configs.ReverseSoftLimitThreshold = back;
-      configs.ReverseSoftLimitEnable = true;
-      motor.getConfigurator().apply(configs);
+    public double getVelocity() {
+      return velocity.getValueAsDouble();
     }
 
-    public void setSoftLimits(double forward, double back) {
-      setForwardLimit(forward);
-      setBackLimit(back);
+    public double getVoltage() {
+      return voltage.getValueAsDouble();
+    }
+
+    public boolean isInverted() {
+      return config.MotorOutput.Inverted == InvertedValue.Clockwise_Positive;
     }
 
     public void resetEncoder() {
-      motor.setPosition(0);
+      check(motor.setPosition(0));
+    }
+
+    public DeviceStats getStats() {
+      return stats;
+    }
+
+    public MotorConfig readConfig() {
+      TalonFXConfiguration actual = new TalonFXConfiguration();
+      StatusCode code = motor.getConfigurator().refresh(actual);
+      check(code);
+      if (!code.isOK()) {
+        return null;
+      }
+      MotorConfig read = new MotorConfig()
+          .set(Setting.P, actual.Slot0.kP)
+          .set(Setting.I, actual.Slot0.kI)
+          .set(Setting.D, actual.Slot0.kD)
+          .set(Setting.F, actual.Slot0.kV)
+          .inverted(actual.MotorOutput.Inverted == InvertedValue.Clockwise_Positive);
+      if (actual.CurrentLimits.SupplyCurrentLimitEnable) {
+        read.set(Setting.SUPPLY_CURRENT_LIMIT, actual.CurrentLimits.SupplyCurrentLimit);
+      }
+      if (actual.CurrentLimits.StatorCurrentLimitEnable) {
+        read.set(Setting.STATOR_CURRENT_LIMIT, actual.CurrentLimits.StatorCurrentLimit);
+      }
+      if (actual.SoftwareLimitSwitch.ForwardSoftLimitEnable) {
+        read.set(Setting.FORWARD_LIMIT, actual.SoftwareLimitSwitch.ForwardSoftLimitThreshold);
+      }
+      if (actual.SoftwareLimitSwitch.ReverseSoftLimitEnable) {
+        read.set(Setting.BACK_LIMIT, actual.SoftwareLimitSwitch.ReverseSoftLimitThreshold);
+      }
+      return read;
     }
   }
\ No newline at end of file
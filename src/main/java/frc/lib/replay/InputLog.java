@@ -0,0 +1,549 @@
+package frc.lib.replay;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import edu.wpi.first.hal.DriverStationJNI;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.lib.motor.Motor;
+
+/**
+ * Records each loop's inputs (motor readings, driver station state, one
+ * controller's axes, buttons and POV, and the FPGA timestamp) along with each
+ * motor's output, so they can be replayed with {@link ReplayRunner}.
+ * <p>
+ * While recording, every motor's adapter is wrapped in a {@link ReplayAdapter}
+ * that latches its readings at {@link #beginLoop()}, so the robot code sees
+ * exactly the values that are logged. Motors on a
+ * {@link frc.lib.motor.ControlThread} are left alone, since their thread needs
+ * fresh readings every loop; they are neither recorded nor replayed.
+ * <p>
+ * Frames are written into pre-allocated buffers and handed to a background
+ * thread, so the main loop never touches the disk; if every buffer is full,
+ * frames are dropped and counted.
+ * <p>
+ * The file is big-endian: a header (magic, version, motor names and
+ * controller port) followed by fixed-size frames. The controller may not be
+ * connected when recording starts, so each frame holds its axis and button
+ * counts, with room for the most axes the driver station sends.
+ */
+public final class InputLog {
+    private static final int MAGIC = 0x52504C59; // "RPLY"
+    private static final int VERSION = 2;
+    private static final int MAX_AXES = DriverStationJNI.kMaxJoystickAxes;
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final int BUFFERS = 4;
+    private static final int ENABLED = 1, AUTONOMOUS = 2, TEST = 4;
+
+    private enum Mode {
+        OFF, RECORD, REPLAY
+    }
+
+    private static Mode mode = Mode.OFF;
+    private static ReplayAdapter[] adapters = new ReplayAdapter[0];
+    private static Motor[] motors = new Motor[0];
+    private static Frame frame;
+
+    // Recording
+    private static BlockingQueue<ByteBuffer> free;
+    private static BlockingQueue<ByteBuffer> full;
+    private static ByteBuffer current;
+    private static Thread writer;
+    private static long droppedFrames;
+
+    // Replaying
+    private static Frame expected;
+    private static double tolerance;
+    private static long comparedFrames;
+    private static long mismatchedFrames;
+
+    private InputLog() {}
+
+    /**
+     * Starts recording every motor created so far, and a controller. Call once
+     * all subsystems are constructed, e.g. at the end of robotInit.
+     *
+     * @param file    The file to write.
+     * @param hidPort The driver station port of the controller to record.
+     */
+    public static void startRecording(File file, int hidPort) {
+        startRecording(() -> new FileOutputStream(file), hidPort);
+    }
+
+    /**
+     * Opens the stream a log is written to.
+     */
+    interface Output {
+        OutputStream open() throws IOException;
+    }
+
+    static synchronized void startRecording(Output stream, int hidPort) {
+        if (mode != Mode.OFF) {
+            return;
+        }
+        wrapMotors();
+        Header header = new Header(names(), hidPort);
+        frame = new Frame(header);
+
+        DataOutputStream out;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(stream.open()));
+            header.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        int bufferBytes = Math.max(BUFFER_BYTES, frame.size());
+        free = new ArrayBlockingQueue<>(BUFFERS);
+        full = new ArrayBlockingQueue<>(BUFFERS);
+        for (int i = 0; i < BUFFERS; i++) {
+            free.add(ByteBuffer.allocate(bufferBytes));
+        }
+        current = free.poll();
+        writer = new Thread(() -> writeLoop(out), "input log");
+        writer.setDaemon(true);
+        writer.start();
+        mode = Mode.RECORD;
+    }
+
+    /**
+     * Stops recording, writing every buffered frame and closing the file.
+     */
+    public static synchronized void stopRecording() {
+        if (mode != Mode.RECORD) {
+            return;
+        }
+        mode = Mode.OFF;
+        if (current != null && current.position() > 0) {
+            full.add(current);
+        }
+        current = null;
+        writer.interrupt();
+        try {
+            writer.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Marks the start of a loop. When recording, latches every motor's readings
+     * and captures the driver station. Call first in robotPeriodic.
+     */
+    public static void beginLoop() {
+        if (mode != Mode.RECORD) {
+            return;
+        }
+        for (int i = 0; i < adapters.length; i++) {
+            adapters[i].latch();
+        }
+        frame.capture(adapters);
+    }
+
+    /**
+     * Marks the end of a loop. When recording, writes the loop's frame; when
+     * replaying, compares every motor's output with the recorded one. Call last
+     * in robotPeriodic.
+     */
+    public static void endLoop() {
+        if (mode == Mode.RECORD) {
+            frame.captureOutputs(motors);
+            if (current != null && current.remaining() < frame.size()) {
+                full.offer(current);
+                current = null;
+            }
+            if (current == null) {
+                current = free.poll();
+                if (current == null) {
+                    // Every buffer is waiting to be written; try again next loop.
+                    droppedFrames++;
+                    return;
+                }
+            }
+            frame.write(current);
+        } else if (mode == Mode.REPLAY && expected != null) {
+            comparedFrames++;
+            for (int i = 0; i < motors.length; i++) {
+                double output = motors[i].getLastOutput();
+                double recorded = expected.outputs[i];
+                boolean bothNaN = Double.isNaN(output) && Double.isNaN(recorded);
+                if (!bothNaN && !(Math.abs(output - recorded) <= tolerance)) {
+                    mismatchedFrames++;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of frames dropped while recording because the writer
+     * fell behind.
+     *
+     * @return The number of dropped frames.
+     */
+    public static long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    /**
+     * Gets a new file to record to in a directory, numbered after the ones
+     * already there, deleting the oldest so at most {@code keep} remain. The
+     * roboRIO's clock is often unset at startup, so files are numbered rather
+     * than timestamped.
+     *
+     * @param directory The directory, e.g. /home/lvuser.
+     * @param keep      The number of logs to keep, including the new one.
+     * @return The file to record to.
+     */
+    public static File nextFile(File directory, int keep) {
+        File[] logs = directory.listFiles((dir, name) -> logNumber(name) >= 0);
+        if (logs == null) {
+            logs = new File[0];
+        }
+        Arrays.sort(logs, Comparator.comparingInt(log -> logNumber(log.getName())));
+        for (int i = 0; i <= logs.length - keep; i++) {
+            if (!logs[i].delete()) {
+                DriverStation.reportWarning("Could not delete old input log " + logs[i], false);
+            }
+        }
+        int next = logs.length == 0 ? 1 : logNumber(logs[logs.length - 1].getName()) + 1;
+        return new File(directory, String.format("inputs-%04d.rlog", next));
+    }
+
+    // The number of a file named by nextFile, or -1.
+    private static int logNumber(String name) {
+        if (!name.startsWith("inputs-") || !name.endsWith(".rlog")) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(name.substring("inputs-".length(), name.length() - ".rlog".length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    static synchronized void startReplay(Header header, double outputTolerance) {
+        wrapMotors();
+        matchMotors(header.motorNames);
+        tolerance = outputTolerance;
+        comparedFrames = 0;
+        mismatchedFrames = 0;
+        mode = Mode.REPLAY;
+    }
+
+    static void setExpected(Frame frame) {
+        expected = frame;
+    }
+
+    static void applyMotorInputs(Frame frame) {
+        for (int i = 0; i < adapters.length; i++) {
+            adapters[i].setInputs(frame.inputs[3 * i], frame.inputs[3 * i + 1], frame.inputs[3 * i + 2]);
+        }
+    }
+
+    static synchronized void stopReplay() {
+        mode = Mode.OFF;
+        expected = null;
+    }
+
+    static long getComparedFrames() {
+        return comparedFrames;
+    }
+
+    static long getMismatchedFrames() {
+        return mismatchedFrames;
+    }
+
+    // Puts the motors in the log's order, failing if they don't match.
+    private static void matchMotors(String[] recorded) {
+        String[] names = names();
+        boolean[] matched = new boolean[names.length];
+        Motor[] orderedMotors = new Motor[recorded.length];
+        ReplayAdapter[] orderedAdapters = new ReplayAdapter[recorded.length];
+        for (int i = 0; i < recorded.length; i++) {
+            int match = findMotor(names, matched, recorded[i]);
+            if (match < 0) {
+                throw new IllegalStateException("No motor matches " + recorded[i] + " from the log");
+            }
+            matched[match] = true;
+            orderedMotors[i] = motors[match];
+            orderedAdapters[i] = adapters[match];
+        }
+        for (int i = 0; i < names.length; i++) {
+            if (!matched[i]) {
+                throw new IllegalStateException("Motor " + names[i] + " is not in the log");
+            }
+        }
+        motors = orderedMotors;
+        adapters = orderedAdapters;
+    }
+
+    // The same name, or else the only motor with the same CAN ID, since the
+    // bus and type differ between a robot and its simulation.
+    private static int findMotor(String[] names, boolean[] matched, String recorded) {
+        int byId = -1;
+        int idMatches = 0;
+        for (int i = 0; i < names.length; i++) {
+            if (matched[i]) {
+                continue;
+            }
+            if (names[i].equals(recorded)) {
+                return i;
+            }
+            if (id(names[i]).equals(id(recorded))) {
+                byId = i;
+                idMatches++;
+            }
+        }
+        return idMatches == 1 ? byId : -1;
+    }
+
+    private static String id(String name) {
+        return name.substring(name.lastIndexOf(' ') + 1);
+    }
+
+    private static void wrapMotors() {
+        List<Motor> all = new ArrayList<>(Motor.all());
+        // Control threads read their motors every tick, not once per loop.
+        all.removeIf(Motor::isOnControlThread);
+        motors = all.toArray(new Motor[0]);
+        adapters = new ReplayAdapter[motors.length];
+        for (int i = 0; i < motors.length; i++) {
+            int index = i;
+            motors[i].wrapAdapter(adapter -> {
+                ReplayAdapter wrapped = adapter instanceof ReplayAdapter replay ? replay : new ReplayAdapter(adapter);
+                adapters[index] = wrapped;
+                return wrapped;
+            });
+        }
+    }
+
+    private static String[] names() {
+        String[] names = new String[adapters.length];
+        for (int i = 0; i < adapters.length; i++) {
+            var stats = adapters[i].getStats();
+            names[i] = stats.getBus() + "/" + stats.getType() + " " + stats.getId();
+        }
+        return names;
+    }
+
+    private static void writeLoop(DataOutputStream out) {
+        try (out) {
+            while (true) {
+                ByteBuffer buffer;
+                try {
+                    buffer = full.take();
+                } catch (InterruptedException e) {
+                    buffer = full.poll();
+                    if (buffer == null) {
+                        return;
+                    }
+                    Thread.currentThread().interrupt();
+                }
+                out.write(buffer.array(), 0, buffer.position());
+                buffer.clear();
+                free.offer(buffer);
+            }
+        } catch (IOException e) {
+            DriverStation.reportError("Input log write failed: " + e.getMessage(), false);
+        }
+    }
+
+    /**
+     * Opens a log for reading.
+     *
+     * @param file The file to read.
+     * @return A reader, positioned at the first frame.
+     * @throws IOException If the file can't be read or isn't an input log.
+     */
+    static Reader open(File file) throws IOException {
+        return new Reader(file);
+    }
+
+    /**
+     * The header of a log.
+     */
+    static final class Header {
+        final String[] motorNames;
+        final int hidPort;
+
+        Header(String[] motorNames, int hidPort) {
+            this.motorNames = motorNames;
+            this.hidPort = hidPort;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(motorNames.length);
+            for (String name : motorNames) {
+                out.writeUTF(name);
+            }
+            out.writeInt(hidPort);
+        }
+
+        static Header read(DataInputStream in) throws IOException {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a version " + VERSION + " input log");
+            }
+            String[] names = new String[in.readInt()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = in.readUTF();
+            }
+            return new Header(names, in.readInt());
+        }
+    }
+
+    /**
+     * One loop's inputs and outputs.
+     */
+    static final class Frame {
+        final Header header;
+        long timestamp;
+        int flags;
+        final double[] inputs;
+        int axisCount;
+        final double[] axes = new double[MAX_AXES];
+        int buttonCount;
+        int buttons;
+        int pov;
+        final double[] outputs;
+
+        Frame(Header header) {
+            this.header = header;
+            this.inputs = new double[3 * header.motorNames.length];
+            this.outputs = new double[header.motorNames.length];
+        }
+
+        int size() {
+            return Long.BYTES + Integer.BYTES * 5 + Double.BYTES * (inputs.length + axes.length + outputs.length);
+        }
+
+        boolean isEnabled() {
+            return (flags & ENABLED) != 0;
+        }
+
+        boolean isAutonomous() {
+            return (flags & AUTONOMOUS) != 0;
+        }
+
+        boolean isTest() {
+            return (flags & TEST) != 0;
+        }
+
+        void capture(ReplayAdapter[] adapters) {
+            timestamp = RobotController.getFPGATime();
+            flags = (DriverStation.isEnabled() ? ENABLED : 0)
+                    | (DriverStation.isAutonomous() ? AUTONOMOUS : 0)
+                    | (DriverStation.isTest() ? TEST : 0);
+            for (int i = 0; i < adapters.length; i++) {
+                inputs[3 * i] = adapters[i].getPosition();
+                inputs[3 * i + 1] = adapters[i].getVelocity();
+                inputs[3 * i + 2] = adapters[i].getVoltage();
+            }
+            int port = header.hidPort;
+            // Reading past the axis count warns about an unplugged controller.
+            axisCount = Math.min(DriverStation.getStickAxisCount(port), MAX_AXES);
+            for (int i = 0; i < axes.length; i++) {
+                axes[i] = i < axisCount ? DriverStation.getStickAxis(port, i) : 0;
+            }
+            buttonCount = DriverStation.getStickButtonCount(port);
+            buttons = DriverStation.getStickButtons(port);
+            pov = DriverStation.getStickPOVCount(port) > 0 ? DriverStation.getStickPOV(port, 0) : -1;
+        }
+
+        void captureOutputs(Motor[] motors) {
+            for (int i = 0; i < motors.length; i++) {
+                outputs[i] = motors[i].getLastOutput();
+            }
+        }
+
+        void write(ByteBuffer buffer) {
+            buffer.putLong(timestamp);
+            buffer.putInt(flags);
+            for (double value : inputs) {
+                buffer.putDouble(value);
+            }
+            buffer.putInt(axisCount);
+            for (double value : axes) {
+                buffer.putDouble(value);
+            }
+            buffer.putInt(buttonCount);
+            buffer.putInt(buttons);
+            buffer.putInt(pov);
+            for (double value : outputs) {
+                buffer.putDouble(value);
+            }
+        }
+
+        void read(DataInputStream in) throws IOException {
+            timestamp = in.readLong();
+            flags = in.readInt();
+            for (int i = 0; i < inputs.length; i++) {
+                inputs[i] = in.readDouble();
+            }
+            axisCount = in.readInt();
+            for (int i = 0; i < axes.length; i++) {
+                axes[i] = in.readDouble();
+            }
+            buttonCount = in.readInt();
+            buttons = in.readInt();
+            pov = in.readInt();
+            for (int i = 0; i < outputs.length; i++) {
+                outputs[i] = in.readDouble();
+            }
+        }
+    }
+
+    /**
+     * Reads a log's frames in order, reusing one Frame.
+     */
+    static final class Reader implements AutoCloseable {
+        private final DataInputStream in;
+        final Header header;
+        final Frame frame;
+
+        private Reader(File file) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            this.header = Header.read(in);
+            this.frame = new Frame(header);
+        }
+
+        /**
+         * Reads the next frame into {@link #frame}.
+         *
+         * @return Whether a frame was read; false at the end of the log.
+         * @throws IOException If the file can't be read.
+         */
+        boolean next() throws IOException {
+            try {
+                frame.read(in);
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
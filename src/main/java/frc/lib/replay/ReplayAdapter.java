@@ -0,0 +1,119 @@
+package frc.lib.replay;
+
+import frc.lib.motor.DeviceStats;
+import frc.lib.motor.Motor.Control;
+import frc.lib.motor.Motor.Usage;
+import frc.lib.motor.MotorAdapter;
+import frc.lib.motor.MotorConfig;
+
+/**
+ * A MotorAdapter whose sensor readings are fixed for a whole loop, so they can
+ * be recorded and replayed exactly.
+ * <p>
+ * When recording, {@link #latch()} copies the wrapped adapter's readings once
+ * at the start of each loop. When replaying, {@link #setInputs} sets them from
+ * the log instead. Everything else is passed to the wrapped adapter.
+ */
+public class ReplayAdapter implements MotorAdapter {
+    private final MotorAdapter delegate;
+    private double position;
+    private double velocity;
+    private double voltage;
+
+    /**
+     * Wraps an adapter.
+     *
+     * @param delegate The adapter to wrap.
+     */
+    public ReplayAdapter(MotorAdapter delegate) {
+        this.delegate = delegate;
+        latch();
+    }
+
+    /**
+     * Copies the wrapped adapter's current readings.
+     */
+    public void latch() {
+        position = delegate.getPosition();
+        velocity = delegate.getVelocity();
+        voltage = delegate.getVoltage();
+    }
+
+    /**
+     * Sets the readings returned until the next call.
+     *
+     * @param position The position.
+     * @param velocity The velocity.
+     * @param voltage  The voltage.
+     */
+    public void setInputs(double position, double velocity, double voltage) {
+        this.position = position;
+        this.velocity = velocity;
+        this.voltage = voltage;
+    }
+
+    /**
+     * Gets the wrapped adapter.
+     *
+     * @return The wrapped adapter.
+     */
+    public MotorAdapter getDelegate() {
+        return delegate;
+    }
+
+    public MotorAdapter unwrap() {
+        return delegate.unwrap();
+    }
+
+    public double getPosition() {
+        return position;
+    }
+
+    public double getVelocity() {
+        return velocity;
+    }
+
+    public double getVoltage() {
+        return voltage;
+    }
+
+    public void initialize() {
+        delegate.initialize();
+    }
+
+    public void resetEncoder() {
+        delegate.resetEncoder();
+    }
+
+    public MotorConfig applyConfig(MotorConfig changes) {
+        return delegate.applyConfig(changes);
+    }
+
+    public void setReference(double reference, Control controlType, int slot, double feedforward) {
+        delegate.setReference(reference, controlType, slot, feedforward);
+    }
+
+    public void setUpdateFrequency(double hz) {
+        delegate.setUpdateFrequency(hz);
+    }
+
+    public void setSignalFrequency(double positionHz, double velocityHz, double voltageHz) {
+        delegate.setSignalFrequency(positionHz, velocityHz, voltageHz);
+    }
+
+    public void setUsage(Usage usage) {
+        delegate.setUsage(usage);
+    }
+
+    public boolean isInverted() {
+        return delegate.isInverted();
+    }
+
+    public DeviceStats getStats() {
+        return delegate.getStats();
+    }
+
+    public MotorConfig readConfig() {
+        return delegate.readConfig();
+    }
+}
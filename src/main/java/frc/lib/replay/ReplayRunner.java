@@ -0,0 +1,109 @@
+package frc.lib.replay;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.function.Supplier;
+
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import frc.lib.sim.SimHarness;
+
+/**
+ * Replays a log recorded by {@link InputLog} through the robot code,
+ * headlessly and as fast as the CPU allows.
+ * <p>
+ * The robot is run in a {@link SimHarness}. Before each recorded loop, the
+ * driver station, the controller and every motor's readings are set to the
+ * recorded values and simulated time is advanced by one period, so
+ * subsystems and commands see the same inputs, in the same order, that they
+ * saw on the robot. TimedRobot runs loops on a fixed schedule, so the robot's
+ * clock reads evenly spaced times rather than the recorded ones; the recorded
+ * timestamps stay in the log for finding slow loops. After each loop, every
+ * motor's output is compared with the recorded one, so a change that should
+ * only affect performance can be checked against real match data. For example:
+ *
+ * <pre>{@code
+ * ReplayRunner.Result result = ReplayRunner.run(Robot::new, new File("match.rlog"));
+ * System.out.println(result);
+ * }</pre>
+ */
+public final class ReplayRunner {
+    private static final double DEFAULT_TOLERANCE = 1e-9;
+
+    private ReplayRunner() {}
+
+    /**
+     * The outcome of a replay.
+     *
+     * @param frames         The number of loops replayed.
+     * @param mismatches     The number of loops where some motor's output
+     *                       differed from the recorded one.
+     * @param realTimeFactor How many recorded seconds were replayed per real
+     *                       second.
+     */
+    public record Result(long frames, long mismatches, double realTimeFactor) {
+        @Override
+        public String toString() {
+            return String.format("%d loops replayed, %d with different outputs, %.1fx real time",
+                    frames, mismatches, realTimeFactor);
+        }
+    }
+
+    /**
+     * Replays a log, comparing outputs exactly (within floating point noise).
+     *
+     * @param robotFactory Creates the robot, e.g. {@code Robot::new}.
+     * @param file         The log to replay.
+     * @return The outcome.
+     * @throws IOException If the log can't be read.
+     */
+    public static Result run(Supplier<? extends TimedRobot> robotFactory, File file) throws IOException {
+        return run(robotFactory, file, DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * Replays a log.
+     *
+     * @param robotFactory    Creates the robot, e.g. {@code Robot::new}.
+     * @param file            The log to replay.
+     * @param outputTolerance The largest difference between a replayed and a
+     *                        recorded output that still counts as a match.
+     * @return The outcome.
+     * @throws IOException If the log can't be read.
+     */
+    public static Result run(Supplier<? extends TimedRobot> robotFactory, File file, double outputTolerance)
+            throws IOException {
+        try (InputLog.Reader reader = InputLog.open(file); SimHarness sim = new SimHarness(robotFactory)) {
+            InputLog.Header header = reader.header;
+            InputLog.Frame frame = reader.frame;
+            int port = header.hidPort;
+            DriverStationSim.setJoystickPOVCount(port, 1);
+            InputLog.startReplay(header, outputTolerance);
+
+            double period = sim.getRobot().getPeriod();
+            long frames = 0;
+            try {
+                while (reader.next()) {
+                    DriverStationSim.setEnabled(frame.isEnabled());
+                    DriverStationSim.setAutonomous(frame.isAutonomous());
+                    DriverStationSim.setTest(frame.isTest());
+                    DriverStationSim.setJoystickAxisCount(port, frame.axisCount);
+                    for (int i = 0; i < frame.axisCount; i++) {
+                        DriverStationSim.setJoystickAxis(port, i, frame.axes[i]);
+                    }
+                    DriverStationSim.setJoystickButtonCount(port, frame.buttonCount);
+                    DriverStationSim.setJoystickButtons(port, frame.buttons);
+                    DriverStationSim.setJoystickPOV(port, 0, frame.pov);
+                    DriverStationSim.notifyNewData();
+                    InputLog.applyMotorInputs(frame);
+                    InputLog.setExpected(frame);
+                    sim.run(period);
+                    frames++;
+                }
+                return new Result(frames, InputLog.getMismatchedFrames(), sim.getRealTimeFactor());
+            } finally {
+                InputLog.stopReplay();
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package frc.lib.sim;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.lib.motor.DeviceStartup;
+import frc.lib.motor.DeviceStats;
+import frc.lib.motor.Motor;
+import frc.lib.motor.PowerManager;
+import frc.lib.motor.StatusSignals;
+import frc.lib.motor.adapters.SimMotorAdapter;
+import frc.lib.subsystem.WarmUp;
+import frc.lib.telemetry.DataRecorder;
+
+/**
+ * Runs a robot program in simulation as fast as the CPU allows.
+ * <p>
+ * Simulated time is paused and advanced with {@link SimHooks#stepTiming},
+ * one robot period at a time, so each loop runs as soon as the previous one
+ * finishes instead of waiting for the wall clock. Motors created in
+ * simulation use {@link SimMotorAdapter}, which Robot
+ * steps from simulationPeriodic, so subsystems and commands behave as they
+ * would on the robot without any hardware. For example:
+ *
+ * <pre>{@code
+ * try (SimHarness sim = new SimHarness(Robot::new)) {
+ *     sim.enable(SimHarness.Mode.TELEOP);
+ *     Command command = new PositionForAmp(deflector, shooter);
+ *     command.schedule();
+ *     sim.runUntil(() -> !command.isScheduled(), 5);
+ * }
+ * }</pre>
+ */
+public class SimHarness implements AutoCloseable {
+    private final TimedRobot robot;
+    private final Thread robotThread;
+    private final double period;
+    private double simulatedSeconds;
+    private long realNanos;
+
+    /**
+     * The mode to enable the robot in.
+     */
+    public enum Mode {
+        AUTONOMOUS, TELEOP, TEST
+    }
+
+    /**
+     * Creates the robot and starts its main loop on a separate thread, with
+     * simulated time paused and the robot disabled.
+     *
+     * @param robotFactory Creates the robot, e.g. {@code Robot::new}.
+     */
+    public SimHarness(Supplier<? extends TimedRobot> robotFactory) {
+        HAL.initialize(500, 0);
+        SimHooks.pauseTiming();
+        DriverStationSim.resetData();
+        DriverStationSim.setDsAttached(true);
+        DriverStationSim.setEnabled(false);
+        DriverStationSim.notifyNewData();
+
+        robot = robotFactory.get();
+        period = robot.getPeriod();
+        robotThread = new Thread(robot::startCompetition, "sim robot");
+        robotThread.setDaemon(true);
+        robotThread.start();
+        // Let robotInit run before time starts moving.
+        SimHooks.stepTiming(0);
+    }
+
+    /**
+     * Gets the robot.
+     *
+     * @return The robot.
+     */
+    public TimedRobot getRobot() {
+        return robot;
+    }
+
+    /**
+     * Enables the robot in a mode.
+     *
+     * @param mode The mode.
+     * @return The harness, allowing for method chaining.
+     */
+    public SimHarness enable(Mode mode) {
+        DriverStationSim.setAutonomous(mode == Mode.AUTONOMOUS);
+        DriverStationSim.setTest(mode == Mode.TEST);
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.notifyNewData();
+        return this;
+    }
+
+    /**
+     * Disables the robot.
+     *
+     * @return The harness, allowing for method chaining.
+     */
+    public SimHarness disable() {
+        DriverStationSim.setEnabled(false);
+        DriverStationSim.notifyNewData();
+        return this;
+    }
+
+    /**
+     * Runs the robot for an amount of simulated time.
+     *
+     * @param seconds The simulated time to run for, in seconds.
+     * @return The harness, allowing for method chaining.
+     */
+    public SimHarness run(double seconds) {
+        runUntil(() -> false, seconds);
+        return this;
+    }
+
+    /**
+     * Runs the robot until a condition is true, checked after each loop, or
+     * until a timeout.
+     *
+     * @param condition      The condition to stop at.
+     * @param timeoutSeconds The most simulated time to run for, in seconds.
+     * @return Whether the condition became true before the timeout.
+     */
+    public boolean runUntil(BooleanSupplier condition, double timeoutSeconds) {
+        long start = System.nanoTime();
+        long loops = Math.round(timeoutSeconds / period);
+        try {
+            for (long i = 0; i < loops; i++) {
+                SimHooks.stepTiming(period);
+                simulatedSeconds += period;
+                if (condition.getAsBoolean()) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            realNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Gets the total simulated time run.
+     *
+     * @return The simulated time, in seconds.
+     */
+    public double getSimulatedSeconds() {
+        return simulatedSeconds;
+    }
+
+    /**
+     * Gets how many simulated seconds ran per real second.
+     *
+     * @return The speedup over real time.
+     */
+    public double getRealTimeFactor() {
+        return realNanos == 0 ? 0 : simulatedSeconds / (realNanos / 1e9);
+    }
+
+    /**
+     * Stops the robot's main loop, clears the static registries its motors,
+     * devices, signals and subsystems were added to, and resumes real-time
+     * timing. The data recorder is stopped, so the next robot starts a new
+     * log.
+     */
+    @Override
+    public void close() {
+        disable();
+        robot.endCompetition();
+        // endCompetition wakes the loop; step once so it notices.
+        SimHooks.stepTiming(period);
+        try {
+            robotThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        robot.close();
+        SimMotorAdapter.removeAll();
+        PowerManager.removeAll();
+        Motor.removeAll();
+        DeviceStartup.removeAll();
+        DeviceStats.removeAll();
+        StatusSignals.removeAll();
+        WarmUp.removeAll();
+        DataRecorder.removeAll();
+        SimHooks.resumeTiming();
+    }
+}
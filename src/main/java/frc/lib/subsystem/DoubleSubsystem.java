@@ -0,0 +1,382 @@
+package frc.lib.subsystem;
+
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.lib.motor.Motor;
+import frc.lib.telemetry.DataRecorder;
+import frc.lib.telemetry.LoopProfiler;
+import frc.lib.telemetry.MotorTelemetry;
+import frc.lib.telemetry.Telemetry;
+import frc.lib.util.DoubleMutable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Abstract base class for robot subsystems whose state values are all doubles.
+ * <p>
+ * Works like {@code Subsystem<Double>}, but values are stored in
+ * {@link DoubleMutable}s and addressed by slot instead of by field name, so
+ * reading and modifying state values on the periodic path does not box, hash
+ * strings or allocate. Resolve slots once with {@link #slot(Class, String)}
+ * (e.g. in a field initializer) and reuse them, or, for enums annotated with
+ * {@code @StateAccessor}, build the generated accessors over
+ * {@link #values(Class)}, e.g.
+ * {@code new IntakeStateValues(values(IntakeState.class))}. The accessors
+ * share the subsystem's values, so hooks and overrides apply to both.
+ */
+public abstract class DoubleSubsystem extends SubsystemBase {
+    private final Map<Class<?>, DoubleMutable<?>> values;
+    private final DoubleMutable<?>[] mutables;
+    private final Telemetry.StringEntry[] stateEntries;
+    private final Map<Class<?>, DataRecorder.EnumSignal> stateSignals;
+    private final List<MotorTelemetry> motorTelemetry;
+    private final LoopProfiler.Section hooksSection;
+    private final LoopProfiler.Section motorsSection;
+    private final LoopProfiler.Section dashboardSection;
+    private boolean warmingUp;
+    private final Map<Enum<?>, Map<Integer, Hook<?>>> hooks;
+    private final HookOrder hookOrder;
+
+    /**
+     * Constructs a DoubleSubsystem with initial states and values for the given
+     * enum classes.
+     *
+     * @param enumClasses The enum classes to initialize states and values from.
+     */
+    @SafeVarargs
+    public DoubleSubsystem(Class<? extends Enum<?>>... enumClasses) {
+        this.values = new HashMap<>();
+        this.mutables = new DoubleMutable<?>[enumClasses.length];
+        this.stateEntries = new Telemetry.StringEntry[enumClasses.length];
+        this.stateSignals = new HashMap<>();
+        this.motorTelemetry = new ArrayList<>();
+        this.hooks = new HashMap<>();
+        this.hookOrder = new HookOrder();
+
+        setName(this.getClass().getName().toLowerCase());
+        this.hooksSection = LoopProfiler.section(getName() + " hooks");
+        this.motorsSection = LoopProfiler.section(getName() + " updateMotors");
+        this.dashboardSection = LoopProfiler.section(getName() + " updateSmartDashboard");
+
+        for (int i = 0; i < enumClasses.length; i++) {
+            mutables[i] = create(enumClasses[i]);
+            values.put(enumClasses[i], mutables[i]);
+            stateEntries[i] = Telemetry.stringEntry(getName() + " " + enumClasses[i].getSimpleName());
+            stateSignals.put(enumClasses[i],
+                    DataRecorder.enumSignal("state/" + getName() + "/" + enumClasses[i].getSimpleName(), enumClasses[i]));
+        }
+        WarmUp.register(this::warmUp);
+    }
+
+    /**
+     * Runs periodic() once in every state of every state enum, without
+     * publishing to the SmartDashboard, then restores the states. Called by
+     * {@link WarmUp} while motors are dry running.
+     */
+    void warmUp() {
+        warmingUp = true;
+        try {
+            for (DoubleMutable<?> mutable : mutables) {
+                warmUp(mutable);
+            }
+        } finally {
+            warmingUp = false;
+        }
+    }
+
+    private <E extends Enum<E>> void warmUp(DoubleMutable<E> mutable) {
+        E saved = mutable.getState();
+        try {
+            for (E state : mutable.getEnumClass().getEnumConstants()) {
+                mutable.setState(state);
+                periodic();
+            }
+        } finally {
+            mutable.setState(saved);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends Enum<E>> DoubleMutable<E> create(Class<?> enumClass) {
+        return new DoubleMutable<>((Class<E>) enumClass);
+    }
+
+    /**
+     * Gets the value storage for an enum class. The returned object can be kept
+     * and used directly to skip the enum class lookup.
+     *
+     * @param <E>       The enum type.
+     * @param enumClass The enum class.
+     * @return The values for the enum class.
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends Enum<E>> DoubleMutable<E> values(Class<E> enumClass) {
+        DoubleMutable<E> mutable = (DoubleMutable<E>) values.get(enumClass);
+        if (mutable == null) {
+            throw new IllegalArgumentException(enumClass.getSimpleName() + " is not a state of " + getName());
+        }
+        return mutable;
+    }
+
+    /**
+     * Resolves a field name of an enum class to its slot.
+     *
+     * @param enumClass The enum class.
+     * @param key       The field name.
+     * @return The slot of the field.
+     */
+    public int slot(Class<? extends Enum<?>> enumClass, String key) {
+        return values.get(enumClass).slot(key);
+    }
+
+    /**
+     * Gets the current state for a given enum class.
+     *
+     * @param <E>        The enum type.
+     * @param stateClass The class of the enum.
+     * @return The current state.
+     */
+    public <E extends Enum<E>> E getState(Class<E> stateClass) {
+        return values(stateClass).getState();
+    }
+
+    /**
+     * Sets the state for a given enum class. State changes are recorded with
+     * the {@link DataRecorder}.
+     *
+     * @param <E>   The enum type.
+     * @param state The state to set.
+     */
+    public <E extends Enum<E>> void setState(E state) {
+        DoubleMutable<E> mutable = values(state.getDeclaringClass());
+        if (mutable.getState() != state) {
+            mutable.setState(state);
+            stateSignals.get(state.getDeclaringClass()).record(state);
+        }
+    }
+
+    /**
+     * Retrieves a value from the current state of an enum.
+     *
+     * @param enumClass The enum class.
+     * @param slot      The slot of the field to retrieve.
+     * @return The value of the field in the current state.
+     */
+    public double getStateValue(Class<? extends Enum<?>> enumClass, int slot) {
+        return values.get(enumClass).get(slot);
+    }
+
+    /**
+     * Modifies a value of the current state of an enum.
+     *
+     * @param enumClass The enum class.
+     * @param slot      The slot of the field to modify.
+     * @param value     The value to set.
+     */
+    public void modifyStateValue(Class<? extends Enum<?>> enumClass, int slot, double value) {
+        values.get(enumClass).set(slot, value);
+    }
+
+    /**
+     * Creates a hook for the first value of an enum constant, holding a fixed
+     * value.
+     *
+     * @param enumConstant The enum constant to hook
+     * @param value        The value to hook
+     * @return The hook, for declaring other hooks' dependencies on it.
+     */
+    protected Hook<?> setHook(Enum<?> enumConstant, double value) {
+        return setHook(enumConstant, value, 0);
+    }
+
+    /**
+     * Creates a hook for a value of an enum constant, holding a fixed value.
+     * The state value is written immediately.
+     *
+     * @param enumConstant The enum constant to hook
+     * @param value        The value to hook
+     * @param slot         The slot of the value to hook
+     * @return The hook, for declaring other hooks' dependencies on it.
+     */
+    protected Hook<?> setHook(Enum<?> enumConstant, double value, int slot) {
+        Hook<?> hook = getHook(enumConstant, slot);
+        hookOrder.add(hook, HookOrder.NO_DEPENDENCIES);
+        hook.source = () -> value;
+        hook.write(value);
+        return hook;
+    }
+
+    /**
+     * Creates a hook for the first value of an enum constant, following a
+     * source.
+     *
+     * @param enumConstant The enum constant to hook
+     * @param source       The source of the value
+     * @return The hook, for declaring other hooks' dependencies on it.
+     */
+    protected Hook<?> setHook(Enum<?> enumConstant, DoubleSupplier source) {
+        return setHook(enumConstant, source, 0);
+    }
+
+    /**
+     * Creates a hook for a value of an enum constant, following a source.
+     * <p>
+     * The source is first evaluated on the next {@link #periodic()}, not here,
+     * so it may read things that aren't set up yet. After that it is
+     * re-evaluated once per periodic(), and the state value is only written
+     * when the source's value changes. A hook is evaluated after the hooks it
+     * depends on, i.e. those whose values its source reads; replacing a hook
+     * keeps its handle and replaces its dependencies.
+     *
+     * @param enumConstant The enum constant to hook
+     * @param source       The source of the value
+     * @param slot         The slot of the value to hook
+     * @param dependencies The hooks whose values the source reads.
+     * @return The hook, for declaring other hooks' dependencies on it.
+     * @throws IllegalArgumentException If the dependencies form a cycle.
+     */
+    protected Hook<?> setHook(Enum<?> enumConstant, DoubleSupplier source, int slot, Hook<?>... dependencies) {
+        Hook<?> hook = getHook(enumConstant, slot);
+        hookOrder.add(hook, dependencies);
+        hook.source = source;
+        hook.pending = true;
+        return hook;
+    }
+
+    /**
+     * Returns the hook for a value of an enum constant, creating it if needed.
+     */
+    private Hook<?> getHook(Enum<?> enumConstant, int slot) {
+        Map<Integer, Hook<?>> constantHooks = hooks.computeIfAbsent(enumConstant, k -> new HashMap<>());
+        Hook<?> hook = constantHooks.get(slot);
+        if (hook == null) {
+            hook = createHook(values.get(enumConstant.getDeclaringClass()), enumConstant, slot);
+            constantHooks.put(slot, hook);
+        }
+        return hook;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends Enum<E>> Hook<E> createHook(DoubleMutable<?> mutable, Enum<?> state, int slot) {
+        return new Hook<>((DoubleMutable<E>) mutable, (E) state, slot);
+    }
+
+    /**
+     * Removes all hooks for a given enum constant
+     *
+     * @param enumConstant The enum constant to remove hooks.
+     */
+    protected void removeHooks(Enum<?> enumConstant) {
+        Map<Integer, Hook<?>> removed = hooks.remove(enumConstant);
+        if (removed != null) {
+            hookOrder.removeAll(removed.values());
+        }
+    }
+
+    /**
+     * Removes a hook from an enum constant.
+     *
+     * @param enumConstant The enum constant to remove hooks from.
+     * @param slot         The hooked slot to remove.
+     */
+    protected void removeHook(Enum<?> enumConstant, int slot) {
+        Map<Integer, Hook<?>> constantHooks = hooks.get(enumConstant);
+        if (constantHooks != null) {
+            hookOrder.remove(constantHooks.remove(slot));
+        }
+    }
+
+    /**
+     * An internal method to update values from hooks whose sources changed.
+     */
+    private void updateHooks() {
+        hookOrder.update();
+    }
+
+    /**
+     * A state value bound to a source. Returned by setHook as a handle for
+     * declaring other hooks' dependencies on it.
+     */
+    public static final class Hook<E extends Enum<E>> extends HookOrder.Node {
+        private final DoubleMutable<E> mutable;
+        private final E state;
+        private final int slot;
+        private DoubleSupplier source;
+        private double last;
+        private boolean pending;
+
+        private Hook(DoubleMutable<E> mutable, E state, int slot) {
+            this.mutable = mutable;
+            this.state = state;
+            this.slot = slot;
+        }
+
+        @Override
+        void update() {
+            double value = source.getAsDouble();
+            if (pending || Double.compare(value, last) != 0) {
+                write(value);
+            }
+        }
+
+        private void write(double value) {
+            mutable.set(state, slot, value);
+            last = value;
+            pending = false;
+        }
+    }
+
+    /**
+     * Abstract method to update motor outputs. Must be implemented by subclasses.
+     */
+    protected abstract void updateMotors();
+
+    /**
+     * Publishes a motor's position and velocity with this subsystem's telemetry.
+     * Intended to wrap a motor where it is declared, e.g.
+     * {@code logMotor("angle", Motor.neo(id))}.
+     *
+     * @param name  The name of the motor within this subsystem.
+     * @param motor The motor.
+     * @return The motor, allowing for method chaining.
+     */
+    protected Motor logMotor(String name, Motor motor) {
+        motorTelemetry.add(new MotorTelemetry(getName() + " " + name, motor));
+        return motor;
+    }
+
+    /**
+     * Updates the SmartDashboard with current states and motor outputs. Values
+     * are only sent when they change.
+     */
+    protected void updateSmartDashboard() {
+        for (int i = 0; i < mutables.length; i++) {
+            stateEntries[i].set(mutables[i].getState().name());
+        }
+        for (int i = 0; i < motorTelemetry.size(); i++) {
+            motorTelemetry.get(i).update();
+        }
+    }
+
+    /**
+     * Periodic method called repeatedly. Updates hooks, motors and
+     * SmartDashboard, timing each phase with the {@link LoopProfiler}. While
+     * warming up, the SmartDashboard is left alone, so it never shows the
+     * states being warmed up.
+     */
+    @Override
+    public void periodic() {
+        long time = System.nanoTime();
+        updateHooks();
+        time = hooksSection.recordSince(time);
+        updateMotors();
+        time = motorsSection.recordSince(time);
+        if (!warmingUp) {
+            updateSmartDashboard();
+            dashboardSection.recordSince(time);
+        }
+    }
+}
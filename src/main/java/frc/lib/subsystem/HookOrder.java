@@ -0,0 +1,128 @@
+package frc.lib.subsystem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A subsystem's hooks in the order they are evaluated, with every hook after
+ * the hooks it was declared to depend on.
+ * <p>
+ * Adding a new hook appends it, which already respects its dependencies since
+ * they must exist first. Only replacing a hook with dependencies that are
+ * evaluated after it re-sorts the order.
+ */
+final class HookOrder {
+    static final Node[] NO_DEPENDENCIES = new Node[0];
+
+    private final List<Node> order = new ArrayList<>();
+
+    /**
+     * A hook, as seen by the ordering.
+     */
+    abstract static class Node {
+        private Node[] dependencies = NO_DEPENDENCIES;
+        private boolean registered;
+
+        /**
+         * Re-evaluates the hook's source, writing its value if it changed.
+         */
+        abstract void update();
+    }
+
+    /**
+     * Adds a hook, or updates the dependencies of one already added.
+     *
+     * @param hook         The hook.
+     * @param dependencies The hooks whose values the hook's source reads.
+     * @throws IllegalArgumentException If the dependencies form a cycle.
+     */
+    void add(Node hook, Node[] dependencies) {
+        for (Node dependency : dependencies) {
+            if (dependency == hook || dependsOn(dependency, hook, Collections.newSetFromMap(new IdentityHashMap<>()))) {
+                throw new IllegalArgumentException("Hook dependencies form a cycle");
+            }
+        }
+        hook.dependencies = dependencies.length == 0 ? NO_DEPENDENCIES : dependencies.clone();
+        if (!hook.registered) {
+            hook.registered = true;
+            order.add(hook);
+            return;
+        }
+        int index = order.indexOf(hook);
+        for (Node dependency : dependencies) {
+            if (dependency.registered && order.indexOf(dependency) > index) {
+                sort();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes a hook. Hooks that depend on it keep their place.
+     *
+     * @param hook The hook, or null.
+     */
+    void remove(Node hook) {
+        if (hook != null && order.remove(hook)) {
+            hook.registered = false;
+        }
+    }
+
+    /**
+     * Removes hooks.
+     *
+     * @param hooks The hooks.
+     */
+    void removeAll(Collection<? extends Node> hooks) {
+        for (Node hook : hooks) {
+            remove(hook);
+        }
+    }
+
+    /**
+     * Updates every hook, in order.
+     */
+    void update() {
+        for (int i = 0; i < order.size(); i++) {
+            order.get(i).update();
+        }
+    }
+
+    private static boolean dependsOn(Node hook, Node target, Set<Node> visited) {
+        if (!visited.add(hook)) {
+            return false;
+        }
+        for (Node dependency : hook.dependencies) {
+            if (dependency == target || dependsOn(dependency, target, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Depth-first, so each hook follows its dependencies and otherwise keeps
+    // its place.
+    private void sort() {
+        List<Node> sorted = new ArrayList<>(order.size());
+        Set<Node> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Node hook : order) {
+            visit(hook, visited, sorted);
+        }
+        order.clear();
+        order.addAll(sorted);
+    }
+
+    private static void visit(Node hook, Set<Node> visited, List<Node> sorted) {
+        if (!hook.registered || !visited.add(hook)) {
+            return;
+        }
+        for (Node dependency : hook.dependencies) {
+            visit(dependency, visited, sorted);
+        }
+        sorted.add(hook);
+    }
+}
@@ -1,21 +1,37 @@
 package frc.lib.subsystem;
 
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.lib.motor.Motor;
+import frc.lib.telemetry.DataRecorder;
+import frc.lib.telemetry.LoopProfiler;
+import frc.lib.telemetry.MotorTelemetry;
+import frc.lib.telemetry.Telemetry;
+import frc.lib.util.EnumLayout;
 import frc.lib.util.Mutable;
 
-import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import java.util.Objects;
+import java.util.function.Supplier;
 
 /**
  * Abstract base class for robot subsystems.
  */
 public abstract class Subsystem<T> extends SubsystemBase { 
-    private final Map<Class<? extends Enum<?>>, Map<Enum<?>, Map<Integer, T>>> hooks;
+    private final Map<Enum<?>, Map<Integer, Hook<T>>> hooks;
+    private final HookOrder hookOrder;
     private final Map<Class<? extends Enum<?>>, Mutable<T>> values;
     private final Map<Class<? extends Enum<?>>, Enum<?>> states;
+    private final Class<? extends Enum<?>>[] stateClasses;
+    private final Telemetry.StringEntry[] stateEntries;
+    private final Map<Class<?>, DataRecorder.EnumSignal> stateSignals;
+    private final List<MotorTelemetry> motorTelemetry;
+    private final LoopProfiler.Section hooksSection;
+    private final LoopProfiler.Section motorsSection;
+    private final LoopProfiler.Section dashboardSection;
+    private boolean warmingUp;
 
     /**
      * Constructs a Subsystem with initial states and values for the given enum
@@ -26,8 +42,13 @@ public abstract class Subsystem<T> extends SubsystemBase {
     @SafeVarargs
     public Subsystem(Class<? extends Enum<?>>... enumClasses) {
         this.hooks = new HashMap<>();
+        this.hookOrder = new HookOrder();
         this.values = new HashMap<>();
         this.states = new HashMap<>();
+        this.stateClasses = enumClasses.clone();
+        this.stateEntries = new Telemetry.StringEntry[enumClasses.length];
+        this.stateSignals = new HashMap<>();
+        this.motorTelemetry = new ArrayList<>();
 
         for (Class<? extends Enum<?>> clazz : enumClasses) {
             values.put(clazz, translate(clazz));
@@ -35,10 +56,50 @@ public abstract class Subsystem<T> extends SubsystemBase {
         }
 
         setName(this.getClass().getName().toLowerCase());
+        this.hooksSection = LoopProfiler.section(getName() + " hooks");
+        this.motorsSection = LoopProfiler.section(getName() + " updateMotors");
+        this.dashboardSection = LoopProfiler.section(getName() + " updateSmartDashboard");
+
+        for (int i = 0; i < enumClasses.length; i++) {
+            stateEntries[i] = Telemetry.stringEntry(getName() + " " + enumClasses[i].getSimpleName());
+            stateSignals.put(enumClasses[i],
+                    DataRecorder.enumSignal("state/" + getName() + "/" + enumClasses[i].getSimpleName(), enumClasses[i]));
+        }
+        WarmUp.register(this::warmUp);
+    }
+
+    /**
+     * Runs periodic() once in every state of every state enum, without
+     * publishing to the SmartDashboard, then restores the states. Called by
+     * {@link WarmUp} while motors are dry running.
+     */
+    void warmUp() {
+        Enum<?>[] saved = new Enum<?>[stateClasses.length];
+        for (int i = 0; i < stateClasses.length; i++) {
+            saved[i] = states.get(stateClasses[i]);
+        }
+        warmingUp = true;
+        try {
+            for (int i = 0; i < stateClasses.length; i++) {
+                for (Enum<?> state : stateClasses[i].getEnumConstants()) {
+                    states.put(stateClasses[i], state);
+                    periodic();
+                }
+                states.put(stateClasses[i], saved[i]);
+            }
+        } finally {
+            for (int i = 0; i < stateClasses.length; i++) {
+                states.put(stateClasses[i], saved[i]);
+            }
+            warmingUp = false;
+        }
     }
 
     /**
      * Translates an enum class to a Mutable object.
+     * <p>
+     * The enum's field accessors are looked up once per class and cached (see
+     * {@link EnumLayout}), so only the values are read here.
      * 
      * @param <E>       The enum type.
      * @param <T>       The type of values in the enum (assumed to be the same for
@@ -49,18 +110,12 @@ public abstract class Subsystem<T> extends SubsystemBase {
     @SuppressWarnings("unchecked")
     // TODO: Review! can probably be redone, there shouldn't be type-casting.
     public static <E extends Enum<E>, T> Mutable<T> translate(Class<? extends Enum<?>> enumClass) {
+        EnumLayout layout = EnumLayout.of(enumClass);
         Mutable<T> mutable = new Mutable<>();
-        for (Enum<?> enumConstant : enumClass.getEnumConstants()) {
+        for (Enum<?> enumConstant : layout.getConstants()) {
             Mutable.Builder<T> builder = new Mutable.Builder<>(enumConstant.name());
-            for (Field field : enumClass.getDeclaredFields()) {
-                if (!field.isEnumConstant() && !field.isSynthetic()) {
-                    field.setAccessible(true);
-                    try {
-                        builder.with(field.getName(), (T) field.get(enumConstant));
-                    } catch (IllegalAccessException e) {
-                        System.err.println("Error accessing field: " + field.getName()); 
-                    }
-                }
+            for (int i = 0; i < layout.size(); i++) {
+                builder.with(layout.getKey(i), (T) layout.get(enumConstant, i));
             }
             mutable.addInstance(builder.build());
         }
@@ -97,13 +152,19 @@ public abstract class Subsystem<T> extends SubsystemBase {
     }
 
     /**
-     * Sets the state for a given enum class.
+     * Sets the state for a given enum class. State changes are recorded with
+     * the {@link DataRecorder}.
      * 
      * @param <E>   The enum type.
      * @param state The state to set.
      */
     public <E extends Enum<E>> void setState(E state) {
-        states.put(state.getDeclaringClass(), state);
+        if (states.put(state.getDeclaringClass(), state) != state) {
+            DataRecorder.EnumSignal signal = stateSignals.get(state.getDeclaringClass());
+            if (signal != null) {
+                signal.record(state);
+            }
+        }
     }
 
     /**
@@ -249,41 +310,96 @@ public abstract class Subsystem<T> extends SubsystemBase {
     }
 
     /**
-     * Creates a hook for an object, linking it by reference.
-     * For the enum constant provided, a hook is created for the first associated
-     * value
+     * Creates a hook for the first value of an enum constant, holding a fixed
+     * value.
      * 
      * @param enumConstant The enum constant to hook
      * @param value        The value to hook
+     * @return The hook, for declaring other hooks' dependencies on it.
      */
-    protected void setHook(Enum<?> enumConstant, T value) {
-        hooks.computeIfAbsent(enumConstant.getDeclaringClass(), k -> new HashMap<>())
-                .computeIfAbsent(enumConstant, k -> new HashMap<>())
-                .put(0, value);
-        updateHooks();
+    protected Hook<T> setHook(Enum<?> enumConstant, T value) {
+        return setHook(enumConstant, value, 0);
     }
 
     /**
-     * Removes all hooks for a given enum constant
+     * Creates a hook for a value of an enum constant, holding a fixed value.
+     * The state value is written immediately.
      * 
-     * @param enumConstant The enum constant to remove hooks.
+     * @param enumConstant The enum constant to hook
+     * @param value        The value to hook
+     * @param index        The index of the value to hook
+     * @return The hook, for declaring other hooks' dependencies on it.
      */
-    protected void removeHooks(Enum<?> enumConstant) {
-        hooks.get(enumConstant.getDeclaringClass()).remove(enumConstant);
+    protected Hook<T> setHook(Enum<?> enumConstant, T value, Integer index) {
+        Hook<T> hook = getHook(enumConstant, index);
+        hookOrder.add(hook, HookOrder.NO_DEPENDENCIES);
+        hook.source = () -> value;
+        hook.write(value);
+        return hook;
     }
 
     /**
-     * Creates a hook for an object, linking it by reference.
+     * Creates a hook for the first value of an enum constant, following a
+     * source.
      * 
      * @param enumConstant The enum constant to hook
-     * @param value        The value to hook
-     * @param index        The index of the value to hook
+     * @param source       The source of the value
+     * @return The hook, for declaring other hooks' dependencies on it.
      */
-    protected void setHook(Enum<?> enumConstant, T value, Integer index) {
-        hooks.computeIfAbsent(enumConstant.getDeclaringClass(), k -> new HashMap<>())
-                .computeIfAbsent(enumConstant, k -> new HashMap<>())
-                .put(index, value);
-        updateHooks();
+    protected Hook<T> setHook(Enum<?> enumConstant, Supplier<T> source) {
+        return setHook(enumConstant, source, 0);
+    }
+
+    /**
+     * Creates a hook for a value of an enum constant, following a source.
+     * <p>
+     * The source is first evaluated on the next {@link #periodic()}, not here,
+     * so it may read things that aren't set up yet. After that it is
+     * re-evaluated once per periodic(), and the state value is only written
+     * when the source's value changes. A hook is evaluated after the hooks it
+     * depends on, i.e. those whose values its source reads; replacing a hook
+     * keeps its handle and replaces its dependencies.
+     * 
+     * @param enumConstant The enum constant to hook
+     * @param source       The source of the value
+     * @param index        The index of the value to hook, in field declaration
+     *                     order
+     * @param dependencies The hooks whose values the source reads.
+     * @return The hook, for declaring other hooks' dependencies on it.
+     * @throws IllegalArgumentException If the dependencies form a cycle.
+     */
+    protected Hook<T> setHook(Enum<?> enumConstant, Supplier<T> source, Integer index, Hook<?>... dependencies) {
+        Hook<T> hook = getHook(enumConstant, index);
+        hookOrder.add(hook, dependencies);
+        hook.source = source;
+        hook.pending = true;
+        return hook;
+    }
+
+    /**
+     * Returns the hook for a value of an enum constant, creating it if needed.
+     */
+    private Hook<T> getHook(Enum<?> enumConstant, Integer index) {
+        Map<Integer, Hook<T>> constantHooks = hooks.computeIfAbsent(enumConstant, k -> new HashMap<>());
+        Hook<T> hook = constantHooks.get(index);
+        if (hook == null) {
+            String key = EnumLayout.of(enumConstant.getDeclaringClass()).getKey(index);
+            hook = new Hook<>(values.get(enumConstant.getDeclaringClass()).getInstance(enumConstant.name()), key);
+            constantHooks.put(index, hook);
+        }
+        return hook;
+    }
+
+    /**
+     * Removes all hooks for a given enum constant
+     * 
+     * @param enumConstant The enum constant to remove hooks.
+     */
+    protected void removeHooks(Enum<?> enumConstant) {
+        Map<Integer, Hook<T>> removed = hooks.remove(enumConstant);
+        if (removed != null) {
+            hookOrder.removeAll(removed.values());
+        }
     }
 
     /**
@@ -293,20 +409,48 @@ public abstract class Subsystem<T> extends SubsystemBase {
      * @param index        The hooked index to remove.
      */
     protected void removeHook(Enum<?> enumConstant, Integer index) {
-        hooks.get(enumConstant.getDeclaringClass()).get(enumConstant).remove(index);
+        Map<Integer, Hook<T>> constantHooks = hooks.get(enumConstant);
+        if (constantHooks != null) {
+            hookOrder.remove(constantHooks.remove(index));
+        }
     }
 
     /**
-     * An internal method to update values from hooks
+     * An internal method to update values from hooks whose sources changed.
      */
     private void updateHooks() {
-        hooks.forEach((key, map) -> {
-            map.forEach((enumConstant, hook) -> {
-                hook.forEach((idx, value) -> {
-                    modifyStateValue(enumConstant.getDeclaringClass(), enumConstant.name(), hook.get(idx));
-                });
-            });
-        });
+        hookOrder.update();
+    }
+
+    /**
+     * A state value bound to a source. Returned by setHook as a handle for
+     * declaring other hooks' dependencies on it.
+     */
+    public static final class Hook<T> extends HookOrder.Node {
+        private final Mutable.Instance<T> instance;
+        private final String key;
+        private Supplier<T> source;
+        private T last;
+        private boolean pending;
+
+        private Hook(Mutable.Instance<T> instance, String key) {
+            this.instance = instance;
+            this.key = key;
+        }
+
+        @Override
+        void update() {
+            T value = source.get();
+            if (pending || !Objects.equals(value, last)) {
+                write(value);
+            }
+        }
+
+        private void write(T value) {
+            instance.set(key, value);
+            last = value;
+            pending = false;
+        }
     }
 
     /**
@@ -315,19 +459,48 @@ public abstract class Subsystem<T> extends SubsystemBase {
     protected abstract void updateMotors();
 
     /**
-     * Updates the SmartDashboard with current states and motor outputs.
+     * Publishes a motor's position and velocity with this subsystem's telemetry.
+     * Intended to wrap a motor where it is declared, e.g.
+     * {@code logMotor("angle", Motor.neo(id))}.
+     * 
+     * @param name  The name of the motor within this subsystem.
+     * @param motor The motor.
+     * @return The motor, allowing for method chaining.
+     */
+    protected Motor logMotor(String name, Motor motor) {
+        motorTelemetry.add(new MotorTelemetry(getName() + " " + name, motor));
+        return motor;
+    }
+
+    /**
+     * Updates the SmartDashboard with current states and motor outputs. Values
+     * are only sent when they change.
      */
-    protected void updateSmartDashboard() { // TODO: Review
-        states.forEach((stateClass, state) -> SmartDashboard.putString(getName() + " " + stateClass.getSimpleName(),
-                state.toString()));
+    protected void updateSmartDashboard() {
+        for (int i = 0; i < stateClasses.length; i++) {
+            stateEntries[i].set(states.get(stateClasses[i]).name());
+        }
+        for (int i = 0; i < motorTelemetry.size(); i++) {
+            motorTelemetry.get(i).update();
+        }
     }
 
     /**
-     * Periodic method called repeatedly. Updates motors and SmartDashboard.
+     * Periodic method called repeatedly. Updates hooks, motors and
+     * SmartDashboard, timing each phase with the {@link LoopProfiler}. While
+     * warming up, the SmartDashboard is left alone, so it never shows the
+     * states being warmed up.
      */
     @Override
     public void periodic() {
+        long time = System.nanoTime();
+        updateHooks();
+        time = hooksSection.recordSince(time);
         updateMotors();
-        updateSmartDashboard();
+        time = motorsSection.recordSince(time);
+        if (!warmingUp) {
+            updateSmartDashboard();
+            dashboardSection.recordSince(time);
+        }
     }
 }
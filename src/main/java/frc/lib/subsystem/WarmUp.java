@@ -0,0 +1,195 @@
+package frc.lib.subsystem;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.lib.motor.Motor;
+import frc.lib.motor.Motor.Control;
+import frc.lib.telemetry.LoopProfiler;
+import frc.lib.telemetry.Telemetry;
+
+/**
+ * Warms up the robot code while the robot is disabled, so the first seconds
+ * of autonomous don't run in the interpreter or pay for JIT compilation.
+ * <p>
+ * Each call to {@link #runDisabled()} (from disabledPeriodic) puts every
+ * {@link Motor} into a dry run, so nothing is sent to the motor controllers,
+ * then spends a few milliseconds running passes over the code the loop will
+ * run: every subsystem's periodic() in each of its states, and each motor's
+ * setters and getters. States, software PIDs and outputs are restored before
+ * it returns, so the robot is never left dry running. Dry-run outputs are not
+ * recorded or counted, so warm-up doesn't show up in the logs or motor stats.
+ * <p>
+ * Commands are not run. The scheduler itself already runs every disabled loop,
+ * but a command's initialize, execute and end can do anything (reset sensors,
+ * schedule other commands, change other subsystems), and unlike motor outputs
+ * and subsystem states that can't be intercepted or undone. Commands built
+ * from subsystem states get most of their code warmed through the subsystems'
+ * passes.
+ * <p>
+ * Once the JIT has not compiled anything for a second, warm-up is done. The
+ * time of the first and last passes are published under "warm up" in the
+ * SmartDashboard table.
+ */
+public final class WarmUp {
+    private static final long LOOP_BUDGET_NANOS = 5_000_000;
+    private static final int SETTLED_LOOPS = 50;
+    private static final int MAX_LOOPS = 3000;
+
+    private static final List<Runnable> subsystems = new ArrayList<>();
+    private static final CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+    private static final Telemetry.BooleanEntry doneEntry = Telemetry.booleanEntry("warm up done");
+    private static final Telemetry.DoubleEntry passesEntry = Telemetry.doubleEntry("warm up passes");
+    private static final Telemetry.DoubleEntry firstPassEntry = Telemetry.doubleEntry("warm up first pass ms")
+            .withTolerance(1e-3);
+    private static final Telemetry.DoubleEntry lastPassEntry = Telemetry.doubleEntry("warm up last pass ms")
+            .withTolerance(1e-3);
+
+    private static boolean done;
+    private static int loops;
+    private static int quietLoops;
+    private static long lastCompilationMillis = -1;
+    private static long passes;
+    private static long firstPassNanos;
+    private static long lastPassNanos;
+
+    private WarmUp() {}
+
+    /**
+     * Registers a subsystem's warm-up pass. Called by the subsystem base
+     * classes when they are constructed.
+     *
+     * @param warmUp Runs the subsystem through each of its states once.
+     */
+    static synchronized void register(Runnable warmUp) {
+        subsystems.add(warmUp);
+    }
+
+    /**
+     * Forgets every registered subsystem and starts warm-up over. Called when
+     * a {@link frc.lib.sim.SimHarness} closes, so the next robot only warms up
+     * its own subsystems.
+     */
+    public static synchronized void removeAll() {
+        subsystems.clear();
+        done = false;
+        loops = 0;
+        quietLoops = 0;
+        lastCompilationMillis = -1;
+        passes = 0;
+        firstPassNanos = 0;
+        lastPassNanos = 0;
+    }
+
+    /**
+     * Runs warm-up passes for a few milliseconds, until warm-up is done. Call
+     * from disabledPeriodic.
+     */
+    public static void runDisabled() {
+        if (done) {
+            return;
+        }
+        List<Motor> motors = Motor.all();
+        boolean profiling = LoopProfiler.isEnabled();
+        LoopProfiler.setEnabled(false);
+        for (int i = 0; i < motors.size(); i++) {
+            motors.get(i).setDryRun(true);
+        }
+        try {
+            long loopStart = System.nanoTime();
+            long passStart = loopStart;
+            do {
+                runPass(motors);
+                long now = System.nanoTime();
+                lastPassNanos = now - passStart;
+                if (passes++ == 0) {
+                    firstPassNanos = lastPassNanos;
+                }
+                passStart = now;
+            } while (passStart - loopStart < LOOP_BUDGET_NANOS);
+        } catch (RuntimeException e) {
+            // Some state may not be meant to run while disabled; don't take
+            // the robot program down over a warm-up.
+            DriverStation.reportError("Warm-up stopped: " + e, e.getStackTrace());
+            done = true;
+        } finally {
+            for (int i = 0; i < motors.size(); i++) {
+                motors.get(i).setDryRun(false);
+            }
+            LoopProfiler.setEnabled(profiling);
+        }
+
+        loops++;
+        if (isSettled() || loops >= MAX_LOOPS) {
+            done = true;
+        }
+        passesEntry.set(passes);
+        firstPassEntry.set(firstPassNanos / 1e6);
+        lastPassEntry.set(lastPassNanos / 1e6);
+        doneEntry.set(done);
+    }
+
+    /**
+     * Gets whether warm-up is done.
+     *
+     * @return Whether warm-up is done.
+     */
+    public static boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Gets how long the first warm-up pass took, i.e. the code's cold speed.
+     *
+     * @return The duration, in nanoseconds.
+     */
+    public static long getFirstPassNanos() {
+        return firstPassNanos;
+    }
+
+    /**
+     * Gets how long the latest warm-up pass took.
+     *
+     * @return The duration, in nanoseconds.
+     */
+    public static long getLastPassNanos() {
+        return lastPassNanos;
+    }
+
+    private static void runPass(List<Motor> motors) {
+        for (int i = 0; i < subsystems.size(); i++) {
+            subsystems.get(i).run();
+        }
+        for (int i = 0; i < motors.size(); i++) {
+            Motor motor = motors.get(i);
+            double position = motor.getPosition();
+            double velocity = motor.getVelocity();
+            motor.getVoltage();
+            motor.isAtTarget(position);
+            motor.set(0);
+            motor.setReference(position, Control.POSITION);
+            motor.setReference(velocity, Control.VELOCITY);
+            motor.setReference(0, Control.VOLTAGE);
+            if (motor.getPID() != null && motor.getPID().hasPID()) {
+                motor.setManualReference(position, Control.POSITION);
+                motor.setManualReference(velocity, Control.VELOCITY);
+            }
+            motor.stop();
+        }
+    }
+
+    // Settled once nothing has been compiled for SETTLED_LOOPS calls. Without
+    // compilation monitoring, runs for MAX_LOOPS calls instead.
+    private static boolean isSettled() {
+        if (compiler == null || !compiler.isCompilationTimeMonitoringSupported()) {
+            return false;
+        }
+        long compilationMillis = compiler.getTotalCompilationTime();
+        quietLoops = compilationMillis == lastCompilationMillis ? quietLoops + 1 : 0;
+        lastCompilationMillis = compilationMillis;
+        return quietLoops >= SETTLED_LOOPS;
+    }
+}
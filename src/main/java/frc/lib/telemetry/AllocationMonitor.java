@@ -0,0 +1,212 @@
+package frc.lib.telemetry;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.ThreadMXBean;
+
+import edu.wpi.first.wpilibj.RobotController;
+import frc.lib.util.Histogram;
+
+/**
+ * Measures how much the robot loop allocates and how garbage collection
+ * affects it.
+ * <p>
+ * Robot calls {@link #startLoop()} and {@link #endLoop()} around
+ * robotPeriodic, which read the main thread's allocated byte counter (a
+ * HotSpot extension of {@link java.lang.management.ThreadMXBean}) and record
+ * the bytes allocated in each loop. Every collection's pause is recorded from
+ * the JVM's GC notifications. A loop that overruns its period is blamed on
+ * the GC if a pause is reported during it or the loop after, since
+ * notifications arrive on another thread shortly after the pause ends. A
+ * summary is published under "gc" in the SmartDashboard table about once a
+ * second.
+ */
+public final class AllocationMonitor {
+    private static final long PUBLISH_INTERVAL_MICROS = 1_000_000;
+
+    private static final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final Histogram loopAllocations = new Histogram();
+    private static final Histogram gcPauses = new Histogram();
+    private static final AtomicLong gcPauseNanos = new AtomicLong();
+
+    private static final Telemetry.DoubleEntry bytesP50Entry = Telemetry.doubleEntry("gc loop bytes p50");
+    private static final Telemetry.DoubleEntry bytesMaxEntry = Telemetry.doubleEntry("gc loop bytes max");
+    private static final Telemetry.DoubleEntry pauseCountEntry = Telemetry.doubleEntry("gc pauses");
+    private static final Telemetry.DoubleEntry pauseMaxEntry = Telemetry.doubleEntry("gc pause max ms")
+            .withTolerance(1e-3);
+    private static final Telemetry.DoubleEntry overrunEntry = Telemetry.doubleEntry("gc loop overruns");
+    private static final Telemetry.DoubleEntry gcOverrunEntry = Telemetry.doubleEntry("gc overruns during gc");
+
+    private static boolean started;
+    private static long periodNanos;
+    private static long loopStartNanos;
+    private static long loopStartBytes;
+    private static long lastGcPauseNanos;
+    private static boolean overrunPending;
+    private static long overruns;
+    private static long gcOverruns;
+    private static long lastPublishTime;
+
+    private AllocationMonitor() {}
+
+    /**
+     * Starts monitoring. Call once, from the main robot thread.
+     *
+     * @param periodSeconds The robot loop period, in seconds; longer loops
+     *                      count as overruns.
+     */
+    public static synchronized void start(double periodSeconds) {
+        if (started) {
+            return;
+        }
+        started = true;
+        periodNanos = (long) (periodSeconds * 1e9);
+        if (threads.isThreadAllocatedMemorySupported()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+        }
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (collector instanceof NotificationEmitter emitter) {
+                emitter.addNotificationListener(AllocationMonitor::onNotification, null, null);
+            }
+        }
+    }
+
+    /**
+     * Marks the start of a robot loop. Call first in robotPeriodic.
+     */
+    public static void startLoop() {
+        if (!started) {
+            return;
+        }
+        loopStartNanos = System.nanoTime();
+        loopStartBytes = threads.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Marks the end of a robot loop, recording its allocations, checking it
+     * for an overrun, and publishing the summary if due. Call last in
+     * robotPeriodic.
+     */
+    public static void endLoop() {
+        if (!started) {
+            return;
+        }
+        long bytes = threads.getCurrentThreadAllocatedBytes() - loopStartBytes;
+        long duration = System.nanoTime() - loopStartNanos;
+        loopAllocations.record(bytes);
+
+        long pauseTotal = gcPauseNanos.get();
+        boolean paused = pauseTotal != lastGcPauseNanos;
+        lastGcPauseNanos = pauseTotal;
+        if (duration > periodNanos) {
+            overruns++;
+            if (paused) {
+                gcOverruns++;
+            } else {
+                overrunPending = true;
+            }
+        } else if (overrunPending) {
+            // The pause may be reported a loop late.
+            overrunPending = false;
+            if (paused) {
+                gcOverruns++;
+            }
+        }
+
+        long now = RobotController.getFPGATime();
+        if (now - lastPublishTime >= PUBLISH_INTERVAL_MICROS) {
+            lastPublishTime = now;
+            publish();
+        }
+    }
+
+    /**
+     * Gets the bytes allocated by each loop.
+     *
+     * @return A copy of the histogram, in bytes.
+     */
+    public static Histogram getLoopAllocations() {
+        Histogram copy = new Histogram();
+        copy.add(loopAllocations);
+        return copy;
+    }
+
+    /**
+     * Gets the duration of each GC pause.
+     *
+     * @return A copy of the histogram, in nanoseconds.
+     */
+    public static Histogram getGcPauses() {
+        Histogram copy = new Histogram();
+        synchronized (gcPauses) {
+            copy.add(gcPauses);
+        }
+        return copy;
+    }
+
+    /**
+     * Gets the number of loops that took longer than the period.
+     *
+     * @return The number of overruns.
+     */
+    public static long getOverruns() {
+        return overruns;
+    }
+
+    /**
+     * Gets the number of overruns during (or just before) which the GC paused.
+     *
+     * @return The number of overruns attributed to the GC.
+     */
+    public static long getGcOverruns() {
+        return gcOverruns;
+    }
+
+    /**
+     * Clears the histograms and counters.
+     */
+    public static void reset() {
+        loopAllocations.reset();
+        synchronized (gcPauses) {
+            gcPauses.reset();
+        }
+        overruns = 0;
+        gcOverruns = 0;
+    }
+
+    private static void onNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo
+                .from((CompositeData) notification.getUserData());
+        if (info.getGcName().contains("Concurrent")) {
+            // Concurrent cycles run beside the robot code, not in a pause.
+            return;
+        }
+        long pause = info.getGcInfo().getDuration() * 1_000_000;
+        synchronized (gcPauses) {
+            gcPauses.record(pause);
+        }
+        // Count every collection, even ones under a millisecond.
+        gcPauseNanos.addAndGet(Math.max(1, pause));
+    }
+
+    private static void publish() {
+        bytesP50Entry.set(loopAllocations.getPercentile(50));
+        bytesMaxEntry.set(loopAllocations.getMax());
+        synchronized (gcPauses) {
+            pauseCountEntry.set(gcPauses.getCount());
+            pauseMaxEntry.set(gcPauses.getMax() / 1e6);
+        }
+        overrunEntry.set(overruns);
+        gcOverrunEntry.set(gcOverruns);
+    }
+}
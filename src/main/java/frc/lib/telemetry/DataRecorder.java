@@ -0,0 +1,323 @@
+package frc.lib.telemetry;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.util.datalog.StringLogEntry;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotController;
+
+/**
+ * Records signals to a WPILib {@link DataLog} file without touching the disk
+ * or allocating on the main loop.
+ * <p>
+ * Signals are created once (e.g. in a constructor) and recorded from the main
+ * robot thread. Each record is copied into a pre-allocated ring buffer, which
+ * a background thread drains into the log. If the writer falls behind and the
+ * ring fills up, new records are dropped and counted rather than blocking, so
+ * memory use is fixed by the ring's capacity. Until {@link #start()} is
+ * called, recording does nothing.
+ */
+public final class DataRecorder {
+    private static final int DEFAULT_CAPACITY = 1 << 14;
+    private static final long DRAIN_INTERVAL_NANOS = 5_000_000;
+
+    private static final List<SignalDefinition> definitions = new ArrayList<>();
+    private static volatile SignalDefinition[] definitionArray = new SignalDefinition[0];
+    private static volatile Ring ring;
+    private static Thread writer;
+    private static DataLog log;
+
+    private DataRecorder() {}
+
+    /**
+     * Starts recording to the roboRIO's USB drive (/U/logs) if one is plugged
+     * in, otherwise to /home/lvuser/logs, or to the working directory in
+     * simulation.
+     */
+    public static void start() {
+        String directory = "";
+        if (RobotBase.isReal()) {
+            directory = new File("/U").isDirectory() ? "/U/logs" : "/home/lvuser/logs";
+        }
+        start(directory, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Starts recording to a directory.
+     *
+     * @param directory The directory to write the log file to; empty for the
+     *                  working directory.
+     * @param capacity  The number of records the ring buffer holds, rounded up
+     *                  to a power of two.
+     */
+    public static synchronized void start(String directory, int capacity) {
+        if (ring != null) {
+            return;
+        }
+        if (!directory.isEmpty()) {
+            new File(directory).mkdirs();
+        }
+        log = new DataLog(directory, "");
+        Ring newRing = new Ring(Integer.highestOneBit(Math.max(2, capacity - 1)) << 1);
+        writer = new Thread(() -> drainLoop(newRing, log), "data recorder");
+        writer.setDaemon(true);
+        ring = newRing;
+        writer.start();
+    }
+
+    /**
+     * Stops recording, writing every buffered record and closing the log.
+     */
+    public static synchronized void stop() {
+        if (ring == null) {
+            return;
+        }
+        ring = null;
+        writer.interrupt();
+        try {
+            writer.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.close();
+        writer = null;
+        log = null;
+    }
+
+    /**
+     * Stops recording and forgets every signal, so their IDs can be reused.
+     * Signals created before must not be recorded afterwards. Called when a
+     * {@link frc.lib.sim.SimHarness} closes, so the next robot's log only has
+     * its own signals.
+     */
+    public static synchronized void removeAll() {
+        stop();
+        definitions.clear();
+        definitionArray = new SignalDefinition[0];
+    }
+
+    /**
+     * Creates a double signal that records every sample.
+     *
+     * @param name The name of the signal in the log.
+     * @return The signal.
+     */
+    public static DoubleSignal doubleSignal(String name) {
+        return new DoubleSignal(define(name, null));
+    }
+
+    /**
+     * Creates a signal that records enum constants (e.g. subsystem states) by
+     * name.
+     *
+     * @param name      The name of the signal in the log.
+     * @param enumClass The enum class of the values.
+     * @return The signal.
+     */
+    public static EnumSignal enumSignal(String name, Class<? extends Enum<?>> enumClass) {
+        Enum<?>[] constants = enumClass.getEnumConstants();
+        String[] names = new String[constants.length];
+        for (int i = 0; i < constants.length; i++) {
+            names[i] = constants[i].name();
+        }
+        return new EnumSignal(define(name, names));
+    }
+
+    /**
+     * Gets the number of records dropped because the ring buffer was full.
+     *
+     * @return The number of dropped records.
+     */
+    public static long getDropped() {
+        Ring current = ring;
+        return current == null ? 0 : current.dropped;
+    }
+
+    /**
+     * Gets the number of records written to the log.
+     *
+     * @return The number of written records.
+     */
+    public static long getWritten() {
+        Ring current = ring;
+        return current == null ? 0 : current.tail.get();
+    }
+
+    private static synchronized int define(String name, String[] enumNames) {
+        definitions.add(new SignalDefinition(name, enumNames));
+        definitionArray = definitions.toArray(new SignalDefinition[0]);
+        return definitions.size() - 1;
+    }
+
+    private static void record(int id, double value) {
+        Ring current = ring;
+        if (current != null) {
+            current.offer(id, RobotController.getFPGATime(), value);
+        }
+    }
+
+    private static void drainLoop(Ring source, DataLog destination) {
+        Object[] entries = new Object[0];
+        boolean running = true;
+        while (running) {
+            running = !Thread.currentThread().isInterrupted();
+            long head = source.head.get();
+            // Read after head, so it covers every signal recorded below head.
+            SignalDefinition[] defs = definitionArray;
+            if (entries.length < defs.length) {
+                Object[] grown = new Object[defs.length];
+                System.arraycopy(entries, 0, grown, 0, entries.length);
+                entries = grown;
+            }
+
+            try {
+                drain(source, destination, defs, entries, head);
+            } catch (RuntimeException e) {
+                // Skip the batch rather than let the writer die silently.
+                DriverStation.reportError("Data recorder skipped records: " + e, e.getStackTrace());
+            }
+            source.tail.lazySet(head);
+
+            if (running) {
+                LockSupport.parkNanos(DRAIN_INTERVAL_NANOS);
+            }
+        }
+    }
+
+    private static void drain(Ring source, DataLog destination, SignalDefinition[] defs, Object[] entries, long head) {
+        for (long tail = source.tail.get(); tail < head; tail++) {
+            int index = (int) tail & source.mask;
+            int id = source.ids[index];
+            SignalDefinition def = defs[id];
+            if (entries[id] == null) {
+                entries[id] = def.enumNames == null
+                        ? new DoubleLogEntry(destination, def.name)
+                        : new StringLogEntry(destination, def.name);
+            }
+            if (def.enumNames == null) {
+                ((DoubleLogEntry) entries[id]).append(source.values[index], source.timestamps[index]);
+            } else {
+                ((StringLogEntry) entries[id]).append(def.enumNames[(int) source.values[index]],
+                        source.timestamps[index]);
+            }
+        }
+    }
+
+    private record SignalDefinition(String name, String[] enumNames) {}
+
+    /**
+     * A single-producer, single-consumer ring of records stored in parallel
+     * arrays.
+     */
+    private static final class Ring {
+        private final int mask;
+        private final int[] ids;
+        private final long[] timestamps;
+        private final double[] values;
+        private final AtomicLong head = new AtomicLong();
+        private final AtomicLong tail = new AtomicLong();
+        private volatile long dropped;
+
+        private Ring(int capacity) {
+            this.mask = capacity - 1;
+            this.ids = new int[capacity];
+            this.timestamps = new long[capacity];
+            this.values = new double[capacity];
+        }
+
+        private void offer(int id, long timestamp, double value) {
+            long position = head.get();
+            if (position - tail.get() > mask) {
+                dropped = dropped + 1;
+                return;
+            }
+            int index = (int) position & mask;
+            ids[index] = id;
+            timestamps[index] = timestamp;
+            values[index] = value;
+            head.lazySet(position + 1);
+        }
+    }
+
+    /**
+     * A recorded double signal.
+     */
+    public static final class DoubleSignal {
+        private final int id;
+        private int decimation = 1;
+        private int skipped;
+        private boolean changesOnly;
+        private boolean hasLast;
+        private double last;
+
+        private DoubleSignal(int id) {
+            this.id = id;
+        }
+
+        /**
+         * Only records every nth sample.
+         *
+         * @param decimation The number of samples per recorded sample.
+         * @return The signal, allowing for method chaining.
+         */
+        public DoubleSignal withDecimation(int decimation) {
+            this.decimation = Math.max(1, decimation);
+            return this;
+        }
+
+        /**
+         * Only records samples that differ from the last recorded sample.
+         *
+         * @return The signal, allowing for method chaining.
+         */
+        public DoubleSignal withChangesOnly() {
+            this.changesOnly = true;
+            return this;
+        }
+
+        /**
+         * Records a sample, subject to the signal's sampling settings.
+         *
+         * @param value The value.
+         */
+        public void record(double value) {
+            if (++skipped < decimation) {
+                return;
+            }
+            skipped = 0;
+            if (changesOnly && hasLast && Double.compare(value, last) == 0) {
+                return;
+            }
+            hasLast = true;
+            last = value;
+            DataRecorder.record(id, value);
+        }
+    }
+
+    /**
+     * A recorded enum signal, logged as the constants' names.
+     */
+    public static final class EnumSignal {
+        private final int id;
+
+        private EnumSignal(int id) {
+            this.id = id;
+        }
+
+        /**
+         * Records a value.
+         *
+         * @param value The enum constant.
+         */
+        public void record(Enum<?> value) {
+            DataRecorder.record(id, value.ordinal());
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package frc.lib.telemetry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.WrapperCommand;
+import frc.lib.util.Histogram;
+
+/**
+ * Low-overhead timing of each part of the robot loop.
+ * <p>
+ * Code is timed in named {@link Section}s, e.g. one per subsystem phase or
+ * command method, each keeping a histogram of its durations. Robot calls
+ * {@link #startLoop()} and {@link #endLoop()} around robotPeriodic, which
+ * times the whole loop and keeps the slowest loops seen with how long each
+ * section took in them. A summary (p50, p99 and max per section, and the
+ * worst loops) is published under "profile" in the SmartDashboard table about
+ * once a second. Sections must only be recorded from the main robot thread.
+ */
+public final class LoopProfiler {
+    private static final int WORST_LOOPS = 5;
+    private static final long PUBLISH_INTERVAL_MICROS = 1_000_000;
+
+    private static final Map<String, Section> sections = new LinkedHashMap<>();
+    private static Section[] sectionArray = new Section[0];
+    private static final Section loop = new Section("loop");
+    private static final LoopRecord[] worstLoops = new LoopRecord[WORST_LOOPS];
+    private static final Telemetry.StringEntry worstLoopsEntry = Telemetry.stringEntry("profile worst loops");
+
+    private static boolean enabled = true;
+    private static long loopStart;
+    private static long lastPublishTime;
+    private static boolean worstLoopsChanged;
+
+    private LoopProfiler() {}
+
+    /**
+     * Gets the section for a name, creating it if needed. Sections should be
+     * looked up once (e.g. in a constructor) and kept.
+     *
+     * @param name The name of the section.
+     * @return The section.
+     */
+    public static Section section(String name) {
+        Section section = sections.get(name);
+        if (section == null) {
+            section = new Section(name);
+            sections.put(name, section);
+            sectionArray = sections.values().toArray(new Section[0]);
+        }
+        return section;
+    }
+
+    /**
+     * Enables or disables recording. While disabled, sections ignore recorded
+     * times.
+     *
+     * @param enabled Whether to record.
+     */
+    public static void setEnabled(boolean enabled) {
+        LoopProfiler.enabled = enabled;
+    }
+
+    /**
+     * Gets whether recording is enabled.
+     *
+     * @return Whether sections record times.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Marks the start of a robot loop. Call first in robotPeriodic.
+     */
+    public static void startLoop() {
+        loopStart = System.nanoTime();
+    }
+
+    /**
+     * Marks the end of a robot loop, recording its duration and publishing the
+     * summary if due. Call last in robotPeriodic.
+     */
+    public static void endLoop() {
+        if (!enabled) {
+            return;
+        }
+        long duration = System.nanoTime() - loopStart;
+        loop.histogram.record(duration);
+        recordWorstLoop(duration);
+
+        Section[] current = sectionArray;
+        for (int i = 0; i < current.length; i++) {
+            current[i].inLoop = 0;
+        }
+
+        long now = RobotController.getFPGATime();
+        if (now - lastPublishTime >= PUBLISH_INTERVAL_MICROS) {
+            lastPublishTime = now;
+            publish();
+        }
+    }
+
+    /**
+     * Wraps a command so its execute and isFinished are each timed, in
+     * sections named after the command with " execute" and " isFinished"
+     * appended (numbered when names repeat). Each wrapped instance keeps its
+     * own sections, so commands should be wrapped once and reused.
+     * <p>
+     * The scheduler only reports after a command has executed, not before, so
+     * commands can't be timed method by method without wrapping them. Robot
+     * times the whole scheduler run in a "scheduler" section, which covers
+     * every command.
+     *
+     * @param command The command to time.
+     * @return The wrapped command.
+     */
+    public static Command wrap(Command command) {
+        return new ProfiledCommand(command);
+    }
+
+    /**
+     * Gets the histogram of whole loop durations.
+     *
+     * @return The histogram, in nanoseconds.
+     */
+    public static Histogram getLoopTimes() {
+        return loop.getHistogram();
+    }
+
+    /**
+     * Gets the slowest loops recorded, slowest first.
+     *
+     * @return A summary of each loop.
+     */
+    public static List<String> getWorstLoops() {
+        List<String> loops = new ArrayList<>();
+        for (LoopRecord record : sortedWorstLoops()) {
+            loops.add(record.toString());
+        }
+        return loops;
+    }
+
+    /**
+     * Clears every section's histogram and the worst loops.
+     */
+    public static void reset() {
+        loop.histogram.reset();
+        for (Section section : sectionArray) {
+            section.histogram.reset();
+        }
+        Arrays.fill(worstLoops, null);
+        worstLoopsChanged = true;
+    }
+
+    private static void recordWorstLoop(long duration) {
+        int slot = -1;
+        for (int i = 0; i < WORST_LOOPS; i++) {
+            if (worstLoops[i] == null) {
+                slot = i;
+                break;
+            }
+            if (slot == -1 || worstLoops[i].nanos < worstLoops[slot].nanos) {
+                slot = i;
+            }
+        }
+        if (worstLoops[slot] != null && worstLoops[slot].nanos >= duration) {
+            return;
+        }
+        // Only allocates when a loop is among the slowest seen so far.
+        Section[] current = sectionArray;
+        String[] names = new String[current.length];
+        long[] sectionNanos = new long[current.length];
+        for (int i = 0; i < current.length; i++) {
+            names[i] = current[i].name;
+            sectionNanos[i] = current[i].inLoop;
+        }
+        worstLoops[slot] = new LoopRecord(RobotController.getFPGATime(), duration, names, sectionNanos);
+        worstLoopsChanged = true;
+    }
+
+    private static LoopRecord[] sortedWorstLoops() {
+        return Arrays.stream(worstLoops)
+                .filter(record -> record != null)
+                .sorted((a, b) -> Long.compare(b.nanos, a.nanos))
+                .toArray(LoopRecord[]::new);
+    }
+
+    private static void publish() {
+        loop.publish();
+        Section[] current = sectionArray;
+        for (int i = 0; i < current.length; i++) {
+            current[i].publish();
+        }
+        if (worstLoopsChanged) {
+            worstLoopsChanged = false;
+            worstLoopsEntry.set(String.join("\n", getWorstLoops()));
+        }
+    }
+
+    /**
+     * A named, timed part of the robot loop.
+     */
+    public static final class Section {
+        private final String name;
+        private final Histogram histogram = new Histogram();
+        private long inLoop;
+        private Telemetry.DoubleEntry p50Entry;
+        private Telemetry.DoubleEntry p99Entry;
+        private Telemetry.DoubleEntry maxEntry;
+
+        private Section(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Records a duration.
+         *
+         * @param nanos The duration, in nanoseconds.
+         */
+        public void record(long nanos) {
+            if (enabled) {
+                histogram.record(nanos);
+                inLoop += nanos;
+            }
+        }
+
+        /**
+         * Records the time since a start time.
+         *
+         * @param startNanos The start time, from {@link System#nanoTime()}.
+         * @return The current time, so consecutive sections can share a clock
+         *         read.
+         */
+        public long recordSince(long startNanos) {
+            long now = System.nanoTime();
+            record(now - startNanos);
+            return now;
+        }
+
+        /**
+         * Gets the name of the section.
+         *
+         * @return The name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets a copy of the section's durations.
+         *
+         * @return The histogram, in nanoseconds.
+         */
+        public Histogram getHistogram() {
+            Histogram copy = new Histogram();
+            copy.add(histogram);
+            return copy;
+        }
+
+        private void publish() {
+            if (p50Entry == null) {
+                p50Entry = Telemetry.doubleEntry("profile " + name + " p50 ms").withTolerance(1e-3);
+                p99Entry = Telemetry.doubleEntry("profile " + name + " p99 ms").withTolerance(1e-3);
+                maxEntry = Telemetry.doubleEntry("profile " + name + " max ms").withTolerance(1e-3);
+            }
+            p50Entry.set(histogram.getPercentile(50) / 1e6);
+            p99Entry.set(histogram.getPercentile(99) / 1e6);
+            maxEntry.set(histogram.getMax() / 1e6);
+        }
+    }
+
+    /**
+     * A command whose execute and isFinished are timed.
+     */
+    private static final class ProfiledCommand extends WrapperCommand {
+        private Section execute;
+        private Section isFinished;
+
+        private ProfiledCommand(Command command) {
+            super(command);
+        }
+
+        @Override
+        public void initialize() {
+            if (execute == null) {
+                String name = getName();
+                for (int i = 2; sections.containsKey(name + " execute"); i++) {
+                    name = getName() + " " + i;
+                }
+                execute = section(name + " execute");
+                isFinished = section(name + " isFinished");
+            }
+            super.initialize();
+        }
+
+        @Override
+        public void execute() {
+            long start = System.nanoTime();
+            super.execute();
+            execute.recordSince(start);
+        }
+
+        @Override
+        public boolean isFinished() {
+            long start = System.nanoTime();
+            boolean finished = super.isFinished();
+            isFinished.recordSince(start);
+            return finished;
+        }
+    }
+
+    /**
+     * One of the slowest loops, with each section's time in it.
+     */
+    private record LoopRecord(long timestamp, long nanos, String[] names, long[] sectionNanos) {
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder(
+                    String.format("%.2f ms at %.1f s:", nanos / 1e6, timestamp / 1e6));
+            for (int i = 0; i < names.length; i++) {
+                if (sectionNanos[i] > 0) {
+                    builder.append(String.format(" %s %.2f", names[i], sectionNanos[i] / 1e6));
+                }
+            }
+            return builder.toString();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package frc.lib.telemetry;
+
+import frc.lib.motor.Motor;
+
+/**
+ * Publishes a motor's position and velocity, only when they change.
+ */
+public class MotorTelemetry {
+    private final Motor motor;
+    private final Telemetry.DoubleEntry position;
+    private final Telemetry.DoubleEntry velocity;
+
+    /**
+     * Creates telemetry for a motor.
+     *
+     * @param name  The name to publish under, e.g. "shooter angle".
+     * @param motor The motor.
+     */
+    public MotorTelemetry(String name, Motor motor) {
+        this.motor = motor;
+        this.position = Telemetry.doubleEntry(name + " position").withTolerance(1e-4);
+        this.velocity = Telemetry.doubleEntry(name + " velocity").withTolerance(1e-4);
+    }
+
+    /**
+     * Gets the motor this telemetry reads from.
+     *
+     * @return The motor.
+     */
+    public Motor getMotor() {
+        return motor;
+    }
+
+    /**
+     * Publishes the motor's current position and velocity if they changed.
+     */
+    public void update() {
+        position.set(motor.getPosition());
+        velocity.set(motor.getVelocity());
+    }
+}
@@ -0,0 +1,186 @@
+package frc.lib.telemetry;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import edu.wpi.first.networktables.BooleanPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StringPublisher;
+import edu.wpi.first.networktables.StructPublisher;
+import edu.wpi.first.util.struct.Struct;
+
+/**
+ * Cached, change-detecting NetworkTables publishers.
+ * <p>
+ * Entries are created once per key (usually when a subsystem is constructed)
+ * and only send a value when it differs from the last one sent, so publishing
+ * the same value every loop costs a comparison and nothing else. Entries are
+ * published under the SmartDashboard table, so existing dashboards keep
+ * working.
+ */
+public final class Telemetry {
+    private static final NetworkTable table = NetworkTableInstance.getDefault().getTable("SmartDashboard");
+    private static final Map<String, Object> entries = new HashMap<>();
+
+    private Telemetry() {}
+
+    /**
+     * Gets the double entry for a key, creating it if needed.
+     *
+     * @param key The key to publish under.
+     * @return The entry.
+     */
+    public static synchronized DoubleEntry doubleEntry(String key) {
+        return (DoubleEntry) entries.computeIfAbsent(key, k -> new DoubleEntry(table.getDoubleTopic(k).publish()));
+    }
+
+    /**
+     * Gets the boolean entry for a key, creating it if needed.
+     *
+     * @param key The key to publish under.
+     * @return The entry.
+     */
+    public static synchronized BooleanEntry booleanEntry(String key) {
+        return (BooleanEntry) entries.computeIfAbsent(key, k -> new BooleanEntry(table.getBooleanTopic(k).publish()));
+    }
+
+    /**
+     * Gets the string entry for a key, creating it if needed.
+     *
+     * @param key The key to publish under.
+     * @return The entry.
+     */
+    public static synchronized StringEntry stringEntry(String key) {
+        return (StringEntry) entries.computeIfAbsent(key, k -> new StringEntry(table.getStringTopic(k).publish()));
+    }
+
+    /**
+     * Gets the struct entry for a key, creating it if needed.
+     *
+     * @param <T>    The struct type.
+     * @param key    The key to publish under.
+     * @param struct The struct serializer.
+     * @return The entry.
+     */
+    @SuppressWarnings("unchecked")
+    public static synchronized <T> StructEntry<T> structEntry(String key, Struct<T> struct) {
+        return (StructEntry<T>) entries.computeIfAbsent(key,
+                k -> new StructEntry<>(table.getStructTopic(k, struct).publish()));
+    }
+
+    /**
+     * A double value that is only published when it changes.
+     */
+    public static final class DoubleEntry {
+        private final DoublePublisher publisher;
+        private double tolerance;
+        private double last;
+        private boolean published;
+
+        private DoubleEntry(DoublePublisher publisher) {
+            this.publisher = publisher;
+        }
+
+        /**
+         * Sets how much the value must change by before it is published again.
+         *
+         * @param tolerance The tolerance.
+         * @return The entry, allowing for method chaining.
+         */
+        public DoubleEntry withTolerance(double tolerance) {
+            this.tolerance = tolerance;
+            return this;
+        }
+
+        /**
+         * Publishes a value if it differs from the last published value.
+         *
+         * @param value The value.
+         */
+        public void set(double value) {
+            if (!published || Math.abs(value - last) > tolerance || Double.isNaN(value) != Double.isNaN(last)) {
+                publisher.set(value);
+                last = value;
+                published = true;
+            }
+        }
+    }
+
+    /**
+     * A boolean value that is only published when it changes.
+     */
+    public static final class BooleanEntry {
+        private final BooleanPublisher publisher;
+        private boolean last;
+        private boolean published;
+
+        private BooleanEntry(BooleanPublisher publisher) {
+            this.publisher = publisher;
+        }
+
+        /**
+         * Publishes a value if it differs from the last published value.
+         *
+         * @param value The value.
+         */
+        public void set(boolean value) {
+            if (!published || value != last) {
+                publisher.set(value);
+                last = value;
+                published = true;
+            }
+        }
+    }
+
+    /**
+     * A string value that is only published when it changes.
+     */
+    public static final class StringEntry {
+        private final StringPublisher publisher;
+        private String last;
+
+        private StringEntry(StringPublisher publisher) {
+            this.publisher = publisher;
+        }
+
+        /**
+         * Publishes a value if it differs from the last published value.
+         *
+         * @param value The value.
+         */
+        public void set(String value) {
+            if (value != last && !Objects.equals(value, last)) {
+                publisher.set(value);
+                last = value;
+            }
+        }
+    }
+
+    /**
+     * A struct value that is only published when it changes.
+     */
+    public static final class StructEntry<T> {
+        private final StructPublisher<T> publisher;
+        private T last;
+
+        private StructEntry(StructPublisher<T> publisher) {
+            this.publisher = publisher;
+        }
+
+        /**
+         * Publishes a value if it differs (by equals) from the last published
+         * value.
+         *
+         * @param value The value.
+         */
+        public void set(T value) {
+            if (!Objects.equals(value, last)) {
+                publisher.set(value);
+                last = value;
+            }
+        }
+    }
+}
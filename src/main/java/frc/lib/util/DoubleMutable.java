@@ -0,0 +1,155 @@
+package frc.lib.util;
+
+import java.util.EnumMap;
+
+/**
+ * A primitive-backed alternative to {@code Mutable<Double>} for a single enum
+ * class.
+ * <p>
+ * Field names are resolved to integer slots once with {@link #slot(String)};
+ * each state's values are kept in a flat {@code double[]}, so reads and writes
+ * by slot do no boxing, hashing or allocation.
+ */
+public class DoubleMutable<E extends Enum<E>> {
+    private final Class<E> enumClass;
+    private final EnumLayout layout;
+    private final EnumMap<E, double[]> values;
+
+    private E state;
+    private double[] current;
+
+    /**
+     * Constructs a DoubleMutable from the numeric fields of an enum class. The
+     * current state starts as the first enum constant.
+     *
+     * @param enumClass The enum class to copy values from.
+     */
+    public DoubleMutable(Class<E> enumClass) {
+        this.enumClass = enumClass;
+        this.layout = EnumLayout.of(enumClass);
+        this.values = new EnumMap<>(enumClass);
+
+        for (E constant : enumClass.getEnumConstants()) {
+            double[] row = new double[layout.size()];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = toDouble(layout.get(constant, i), i);
+            }
+            values.put(constant, row);
+        }
+        setState(enumClass.getEnumConstants()[0]);
+    }
+
+    private double toDouble(Object value, int slot) {
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        } else if (value instanceof Boolean bool) {
+            return bool ? 1.0 : 0.0;
+        }
+        throw new IllegalArgumentException(
+                "Field " + layout.getKey(slot) + " of " + enumClass.getSimpleName() + " is not numeric");
+    }
+
+    /**
+     * Resolves a field name to its slot. Intended to be called once, e.g. when
+     * initializing a subsystem's fields, not on every loop.
+     *
+     * @param key The field name.
+     * @return The slot of the field.
+     */
+    public int slot(String key) {
+        int slot = layout.indexOf(key);
+        if (slot < 0) {
+            throw new IllegalArgumentException("No field " + key + " in " + enumClass.getSimpleName());
+        }
+        return slot;
+    }
+
+    /**
+     * Gets the field name for a slot.
+     *
+     * @param slot The slot.
+     * @return The field name.
+     */
+    public String getKey(int slot) {
+        return layout.getKey(slot);
+    }
+
+    /**
+     * Gets the number of slots (fields) per state.
+     *
+     * @return The number of slots.
+     */
+    public int size() {
+        return layout.size();
+    }
+
+    /**
+     * Gets the enum class these values were built from.
+     *
+     * @return The enum class.
+     */
+    public Class<E> getEnumClass() {
+        return enumClass;
+    }
+
+    /**
+     * Gets the current state.
+     *
+     * @return The current state.
+     */
+    public E getState() {
+        return state;
+    }
+
+    /**
+     * Sets the current state.
+     *
+     * @param state The state to set.
+     */
+    public void setState(E state) {
+        this.state = state;
+        this.current = values.get(state);
+    }
+
+    /**
+     * Gets a value from the current state.
+     *
+     * @param slot The slot to read.
+     * @return The value in the slot.
+     */
+    public double get(int slot) {
+        return current[slot];
+    }
+
+    /**
+     * Gets a value from a given state.
+     *
+     * @param state The state to read from.
+     * @param slot  The slot to read.
+     * @return The value in the slot.
+     */
+    public double get(E state, int slot) {
+        return values.get(state)[slot];
+    }
+
+    /**
+     * Sets a value in the current state.
+     *
+     * @param slot  The slot to write.
+     * @param value The value to set.
+     */
+    public void set(int slot, double value) {
+        current[slot] = value;
+    }
+
+    /**
+     * Sets a value in a given state.
+     *
+     * @param state The state to write to.
+     * @param slot  The slot to write.
+     * @param value The value to set.
+     */
+    public void set(E state, int slot, double value) {
+        values.get(state)[slot] = value;
+    }
+}
@@ -0,0 +1,157 @@
+package frc.lib.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cached description of an enum class's value fields, built once per class.
+ * <p>
+ * Reflection over the enum only happens the first time a class is looked up;
+ * afterwards the field accessors are shared by every caller on every thread.
+ */
+public final class EnumLayout {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final AtomicLong buildNanos = new AtomicLong();
+    private static final AtomicInteger layoutCount = new AtomicInteger();
+
+    private static final ClassValue<EnumLayout> LAYOUTS = new ClassValue<>() {
+        @Override
+        protected EnumLayout computeValue(Class<?> type) {
+            long start = System.nanoTime();
+            EnumLayout layout = new EnumLayout(type);
+            long elapsed = System.nanoTime() - start;
+
+            buildNanos.addAndGet(elapsed);
+            layoutCount.incrementAndGet();
+            return layout;
+        }
+    };
+
+    private final Enum<?>[] constants;
+    private final String[] keys;
+    private final MethodHandle[] getters;
+
+    private EnumLayout(Class<?> enumClass) {
+        if (!enumClass.isEnum()) {
+            throw new IllegalArgumentException(enumClass.getName() + " is not an enum class");
+        }
+        this.constants = (Enum<?>[]) enumClass.getEnumConstants();
+
+        List<String> keys = new ArrayList<>();
+        List<MethodHandle> getters = new ArrayList<>();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (Field field : enumClass.getDeclaredFields()) {
+            if (field.isEnumConstant() || field.isSynthetic()) {
+                continue;
+            }
+            try {
+                field.setAccessible(true);
+                MethodHandle getter = lookup.unreflectGetter(field);
+                if (Modifier.isStatic(field.getModifiers())) {
+                    getter = MethodHandles.dropArguments(getter, 0, Object.class);
+                }
+                keys.add(field.getName());
+                getters.add(getter.asType(GETTER_TYPE));
+            } catch (IllegalAccessException | RuntimeException e) {
+                System.err.println("Error accessing field: " + field.getName());
+            }
+        }
+        this.keys = keys.toArray(new String[0]);
+        this.getters = getters.toArray(new MethodHandle[0]);
+    }
+
+    /**
+     * Gets the (cached) layout for an enum class.
+     *
+     * @param enumClass The enum class.
+     * @return The layout for the enum class.
+     */
+    public static EnumLayout of(Class<?> enumClass) {
+        return LAYOUTS.get(enumClass);
+    }
+
+    /**
+     * Gets the total time spent building layouts since startup.
+     *
+     * @return The build time, in nanoseconds.
+     */
+    public static long getBuildNanos() {
+        return buildNanos.get();
+    }
+
+    /**
+     * Gets the number of enum classes that have had a layout built.
+     *
+     * @return The number of cached layouts.
+     */
+    public static int getLayoutCount() {
+        return layoutCount.get();
+    }
+
+    /**
+     * Gets the enum constants, in declaration order.
+     *
+     * @return The enum constants. The array is shared and must not be modified.
+     */
+    public Enum<?>[] getConstants() {
+        return constants;
+    }
+
+    /**
+     * Gets the number of value fields in the enum.
+     *
+     * @return The number of fields.
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Gets the name of a field.
+     *
+     * @param index The field's index, in declaration order.
+     * @return The field's name.
+     */
+    public String getKey(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Gets the index of a field by name.
+     *
+     * @param key The field name.
+     * @return The field's index, or -1 if the enum has no such field.
+     */
+    public int indexOf(String key) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads a field's value from an enum constant.
+     *
+     * @param constant The enum constant to read from.
+     * @param index    The field's index.
+     * @return The field's value, or null if it could not be read.
+     */
+    public Object get(Enum<?> constant, int index) {
+        try {
+            return (Object) getters[index].invokeExact((Object) constant);
+        } catch (Throwable e) {
+            System.err.println("Error accessing field: " + keys[index]);
+            return null;
+        }
+    }
+}
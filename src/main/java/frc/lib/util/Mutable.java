@@ -2,6 +2,7 @@ package frc.lib.util;
 
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -16,7 +17,7 @@ public class Mutable<T> {
      */
     public static class Builder<T> {
         private final String name;
-        private final Map<String, T> values = new HashMap<>();
+        private final Map<String, T> values = new LinkedHashMap<>();
 
         /**
          * Constructs a new Builder with a given name.
@@ -59,7 +60,7 @@ public class Mutable<T> {
 
         private Instance(String name, Map<String, T> values) {
             this.name = name;
-            this.values = new HashMap<>(values);
+            this.values = new LinkedHashMap<>(values);
         }
 
         /**
@@ -83,7 +84,8 @@ public class Mutable<T> {
         }
 
         /**
-         * Gets the keys from this Instance and returns it as a Set.
+         * Gets the keys from this Instance and returns it as a Set, in the order
+         * they were added.
          * 
          * @return A set object of the keys contained in this Instance.
          */
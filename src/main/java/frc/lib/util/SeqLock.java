@@ -0,0 +1,113 @@
+package frc.lib.util;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * A fixed-size group of doubles shared between one writer thread and any
+ * number of reader threads without locks or allocation.
+ * <p>
+ * The writer brackets its updates with {@link #beginWrite()} and
+ * {@link #endWrite()}. Readers copy the values with {@link #read(double[])},
+ * which retries until it sees a group of values that were all written
+ * together. Only one thread may write.
+ */
+public class SeqLock {
+    private final double[] values;
+    private volatile int sequence;
+
+    /**
+     * Creates a SeqLock holding a number of values, all initially NaN.
+     *
+     * @param size The number of values.
+     */
+    public SeqLock(int size) {
+        this.values = new double[size];
+        Arrays.fill(values, Double.NaN);
+    }
+
+    /**
+     * Gets the number of values.
+     *
+     * @return The number of values.
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Starts a write. Must be followed by {@link #endWrite()}.
+     */
+    public void beginWrite() {
+        sequence = sequence + 1;
+        VarHandle.storeStoreFence();
+    }
+
+    /**
+     * Sets a value. Only valid between beginWrite and endWrite.
+     *
+     * @param index The index of the value.
+     * @param value The value.
+     */
+    public void set(int index, double value) {
+        values[index] = value;
+    }
+
+    /**
+     * Finishes a write, publishing the values to readers.
+     */
+    public void endWrite() {
+        sequence = sequence + 1;
+    }
+
+    /**
+     * Writes every value at once.
+     *
+     * @param source The values to write; must be at least {@link #size()} long.
+     */
+    public void write(double[] source) {
+        beginWrite();
+        System.arraycopy(source, 0, values, 0, values.length);
+        endWrite();
+    }
+
+    /**
+     * Copies a consistent snapshot of the values.
+     *
+     * @param destination The array to copy into; must be at least
+     *                    {@link #size()} long.
+     */
+    public void read(double[] destination) {
+        while (true) {
+            int before = sequence;
+            if ((before & 1) == 0) {
+                System.arraycopy(values, 0, destination, 0, values.length);
+                VarHandle.loadLoadFence();
+                if (sequence == before) {
+                    return;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Reads a single value, consistent with the last completed write.
+     *
+     * @param index The index of the value.
+     * @return The value.
+     */
+    public double read(int index) {
+        while (true) {
+            int before = sequence;
+            if ((before & 1) == 0) {
+                double value = values[index];
+                VarHandle.loadLoadFence();
+                if (sequence == before) {
+                    return value;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package frc.lib.util;
+
+/**
+ * A stateful, allocation-free PID controller built from a {@link PID}.
+ * <p>
+ * Unlike {@link PID#toPIDController()}, one instance is meant to be kept and
+ * reused, so its integral and derivative state carry over between calls.
+ * Supports kF (as a feedforward proportional to the setpoint), iZone, output
+ * clamping and dFilter.
+ */
+public class SoftwarePID {
+  private final double kP, kI, kD, kF, iZone, minOutput, maxOutput, dFilter;
+
+  private double period = 0.02;
+  private double integral;
+  private double derivative;
+  private double previousError;
+  private boolean hasPrevious;
+
+  /**
+   * Creates a controller from PID constants.
+   *
+   * @param pid              The PID constants. P, I and D must be present.
+   * @param defaultMinOutput The minimum output, if the PID has none.
+   * @param defaultMaxOutput The maximum output, if the PID has none.
+   */
+  public SoftwarePID(PID pid, double defaultMinOutput, double defaultMaxOutput) {
+    if (!pid.hasPID()) {
+      throw new IllegalArgumentException("P, I, D constants not present.");
+    }
+    this.kP = pid.getP().get();
+    this.kI = pid.getI().get();
+    this.kD = pid.getD().get();
+    this.kF = pid.getF().orElse(0.0);
+    this.iZone = pid.getIZone().orElse(Double.POSITIVE_INFINITY);
+    this.minOutput = pid.getMinOutput().orElse(defaultMinOutput);
+    this.maxOutput = pid.getMaxOutput().orElse(defaultMaxOutput);
+    this.dFilter = pid.getDFilter().orElse(0.0);
+  }
+
+  /**
+   * Sets the time between calls to calculate.
+   *
+   * @param period The period, in seconds.
+   * @return The controller, allowing for method chaining.
+   */
+  public SoftwarePID setPeriod(double period) {
+    this.period = period;
+    return this;
+  }
+
+  /**
+   * Gets the time between calls to calculate.
+   *
+   * @return The period, in seconds.
+   */
+  public double getPeriod() {
+    return period;
+  }
+
+  /**
+   * Calculates the next output.
+   * <p>
+   * The integral only accumulates while the error is within iZone, and resets
+   * outside it. The derivative is low-pass filtered: dFilter is the fraction
+   * (0 to 1) of the previous derivative kept each call, so 0 means no
+   * filtering.
+   *
+   * @param measurement The current measurement.
+   * @param setpoint    The setpoint.
+   * @return The output, clamped to the output range.
+   */
+  public double calculate(double measurement, double setpoint) {
+    double error = setpoint - measurement;
+
+    if (Math.abs(error) <= iZone) {
+      integral += error * period;
+    } else {
+      integral = 0;
+    }
+
+    double rawDerivative = hasPrevious ? (error - previousError) / period : 0;
+    derivative = dFilter * derivative + (1 - dFilter) * rawDerivative;
+    previousError = error;
+    hasPrevious = true;
+
+    double output = kP * error + kI * integral + kD * derivative + kF * setpoint;
+    return Math.max(minOutput, Math.min(maxOutput, output));
+  }
+
+  /**
+   * Clears the integral and derivative state.
+   */
+  public void reset() {
+    integral = 0;
+    derivative = 0;
+    previousError = 0;
+    hasPrevious = false;
+  }
+}
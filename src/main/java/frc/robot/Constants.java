@@ -1,5 +1,6 @@
 package frc.robot;
 
+import frc.lib.processor.StateAccessor;
 import frc.lib.util.PID;
 
 public final class Constants {
@@ -16,6 +17,7 @@ public final class Constants {
 
 		public static final PID PID = new PID(0, 0, 0);
 
+		@StateAccessor
 		public enum IntakeState {
 			IDLE(0.0, 0.0, IntakeConstants.ANGLE_UP_POSITION),
 			INTAKE(IntakeConstants.INTAKE_SPEED, IntakeConstants.FEED_SPEED, IntakeConstants.ANGLE_DOWN_POSITION),
@@ -40,6 +42,7 @@ public final class Constants {
 
 		public static final PID PID = new PID(0, 0, 0);
 
+		@StateAccessor
 		public static enum AngleState {
 			RESTING(0.0),
 			UP(0.0);
@@ -51,6 +54,7 @@ public final class Constants {
 			}
 		}
 
+		@StateAccessor
 		public static enum ShooterState {
 			IDLE(0.0, 0.0),
 			SHOOTING(SHOOTER_SPEED, -SHOOTER_SPEED),
@@ -70,6 +74,7 @@ public final class Constants {
 		public static final int DEFLECTOR_ID = 6;
 		public static final PID PID = new PID(0, 0, 0);
 
+		@StateAccessor
 		public static enum DeflectorState {
 			UP(0.0),
 			DOWN(0.0);
@@ -81,4 +86,23 @@ public final class Constants {
 			}
 		}
 	}
+
+	// Supply current limits shared out by the PowerManager, in amps. When the
+	// battery sags, higher priorities keep their current first.
+	public static class PowerConstants {
+		public static final double BUDGET_AMPS = 180;
+
+		public static final int SHOOTER_PRIORITY = 3;
+		public static final double SHOOTER_MIN_AMPS = 20;
+		public static final double SHOOTER_MAX_AMPS = 60;
+
+		public static final int INTAKE_PRIORITY = 2;
+		public static final double INTAKE_MIN_AMPS = 15;
+		public static final double INTAKE_MAX_AMPS = 40;
+
+		// Positioning motors only need their full current while moving.
+		public static final int ANGLE_PRIORITY = 1;
+		public static final double ANGLE_MIN_AMPS = 10;
+		public static final double ANGLE_MAX_AMPS = 30;
+	}
 }
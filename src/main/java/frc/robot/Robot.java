@@ -1,19 +1,71 @@
 package frc.robot;
 
+import java.io.File;
+
+import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.BatterySim;
+import edu.wpi.first.wpilibj.simulation.RoboRioSim;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.lib.motor.DeviceStartup;
+import frc.lib.motor.DeviceStats;
+import frc.lib.motor.Motor;
+import frc.lib.motor.PowerManager;
+import frc.lib.motor.StatusSignals;
+import frc.lib.motor.adapters.SimMotorAdapter;
+import frc.lib.replay.InputLog;
+import frc.lib.subsystem.WarmUp;
+import frc.lib.telemetry.AllocationMonitor;
+import frc.lib.telemetry.DataRecorder;
+import frc.lib.telemetry.LoopProfiler;
+import frc.lib.telemetry.Telemetry;
+import frc.lib.util.EnumLayout;
+import frc.robot.Constants.PowerConstants;
 
 public class Robot extends TimedRobot {
+  // Longest to wait at enable for devices still setting up, in seconds. Their
+  // readiness is published while disabled, so this should rarely wait.
+  private static final double STARTUP_TIMEOUT = 0.05;
+  // Number of input logs kept on the roboRIO, one per boot.
+  private static final int INPUT_LOGS = 10;
+
   // private RobotContainer m_robotContainer;
+  private final LoopProfiler.Section schedulerSection = LoopProfiler.section("scheduler");
 
   @Override
   public void robotInit() {
+    DataRecorder.start();
+    AllocationMonitor.start(getPeriod());
+    if (RobotBase.isReal()) {
+      DeviceStartup.begin();
+    }
     // m_robotContainer = new RobotContainer();
+    DeviceStartup.finish();
+    PowerManager.start(PowerConstants.BUDGET_AMPS);
+    if (RobotBase.isReal()) {
+      // Start after the subsystems exist so every motor is recorded.
+      InputLog.startRecording(InputLog.nextFile(new File("/home/lvuser"), INPUT_LOGS), 0);
+    }
+    // Every subsystem's state enums have been laid out by now.
+    Telemetry.doubleEntry("startup enum layouts").set(EnumLayout.getLayoutCount());
+    Telemetry.doubleEntry("startup enum layout ms").set(EnumLayout.getBuildNanos() / 1e6);
   }
 
   @Override
   public void robotPeriodic() {
+    LoopProfiler.startLoop();
+    AllocationMonitor.startLoop();
+    StatusSignals.refreshAll();
+    InputLog.beginLoop();
+    long schedulerStart = System.nanoTime();
     CommandScheduler.getInstance().run();
+    schedulerSection.recordSince(schedulerStart);
+    InputLog.endLoop();
+    PowerManager.update();
+    Motor.recordAll();
+    DeviceStats.publishAll();
+    AllocationMonitor.endLoop();
+    LoopProfiler.endLoop();
   }
 
   @Override
@@ -22,10 +74,18 @@ public class Robot extends TimedRobot {
 
   @Override
   public void disabledPeriodic() {
+    DeviceStartup.isReady();
+    WarmUp.runDisabled();
+  }
+
+  @Override
+  public void autonomousInit() {
+    DeviceStartup.awaitReady(STARTUP_TIMEOUT);
   }
 
   @Override
   public void teleopInit() {
+    DeviceStartup.awaitReady(STARTUP_TIMEOUT);
   }
 
   @Override
@@ -34,6 +94,7 @@ public class Robot extends TimedRobot {
 
   @Override
   public void testInit() {
+    DeviceStartup.awaitReady(STARTUP_TIMEOUT);
     CommandScheduler.getInstance().cancelAll();
   }
 
@@ -47,5 +108,8 @@ public class Robot extends TimedRobot {
 
   @Override
   public void simulationPeriodic() {
+    SimMotorAdapter.updateAll(getPeriod());
+    RoboRioSim.setVInVoltage(
+        BatterySim.calculateDefaultBatteryLoadedVoltage(SimMotorAdapter.getTotalSupplyCurrent()));
   }
 }
\ No newline at end of file
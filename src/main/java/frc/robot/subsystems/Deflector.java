@@ -1,23 +1,31 @@
 package frc.robot.subsystems;
 
 import frc.lib.motor.Motor;
-import frc.lib.subsystem.Subsystem;
+import frc.lib.motor.Motor.Usage;
+import frc.lib.motor.PowerManager;
+import frc.lib.subsystem.DoubleSubsystem;
 import frc.robot.Constants.DeflectorConstants;
 import frc.robot.Constants.DeflectorConstants.DeflectorState;
+import frc.robot.Constants.PowerConstants;
+import frc.robot.DeflectorStateValues;
 
-public class Deflector extends Subsystem<Double> {
-    private final Motor deflectorAngle = Motor.neo(DeflectorConstants.DEFLECTOR_ID).setPID(DeflectorConstants.PID);
+public class Deflector extends DoubleSubsystem {
+    private final Motor deflectorAngle = logMotor("angle",
+            Motor.neo(DeflectorConstants.DEFLECTOR_ID).setPID(DeflectorConstants.PID).setUsage(Usage.POSITION));
+    private final DeflectorStateValues deflector = new DeflectorStateValues(values(DeflectorState.class));
 
     public Deflector() {
         super(DeflectorState.class);
+        PowerManager.register(deflectorAngle, PowerConstants.ANGLE_PRIORITY, PowerConstants.ANGLE_MIN_AMPS,
+                PowerConstants.ANGLE_MAX_AMPS);
     }
 
     @Override
     protected void updateMotors() {
-        deflectorAngle.setReference(getState(DeflectorState.class).position);
+        deflectorAngle.setReference(deflector.position());
     }
 
     public boolean isAtTarget() {
-        return deflectorAngle.isAtTarget(getState(DeflectorState.class).position);
+        return deflectorAngle.isAtTarget(deflector.position());
     }
 }
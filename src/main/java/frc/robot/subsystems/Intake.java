@@ -1,23 +1,38 @@
 package frc.robot.subsystems;
 
 import frc.lib.motor.Motor;
-import frc.lib.subsystem.Subsystem;
+import frc.lib.motor.Motor.Usage;
+import frc.lib.motor.PowerManager;
+import frc.lib.subsystem.DoubleSubsystem;
+import frc.robot.AngleStateValues;
 import frc.robot.Constants.IntakeConstants;
 import frc.robot.Constants.IntakeConstants.IntakeState;
+import frc.robot.Constants.PowerConstants;
 import frc.robot.Constants.ShooterConstants.AngleState;
+import frc.robot.IntakeStateValues;
 
-public class Intake extends Subsystem<Double> {
-    private Motor intakeMotor = Motor.neo(IntakeConstants.INTAKE_MOTOR_ID).setPID(IntakeConstants.PID);
-    private Motor intakeAngleMotor = Motor.neo(IntakeConstants.ANGLE_MOTOR_ID);
-    private Motor intakeFeederMotor = Motor.neo(IntakeConstants.FEEDER_MOTOR_ID);
+public class Intake extends DoubleSubsystem {
+    private Motor intakeMotor = Motor.neo(IntakeConstants.INTAKE_MOTOR_ID).setPID(IntakeConstants.PID)
+            .setUsage(Usage.OPEN_LOOP);
+    private Motor intakeAngleMotor = logMotor("angle",
+            Motor.neo(IntakeConstants.ANGLE_MOTOR_ID).setUsage(Usage.POSITION));
+    private Motor intakeFeederMotor = Motor.neo(IntakeConstants.FEEDER_MOTOR_ID).setUsage(Usage.OPEN_LOOP);
+    private final IntakeStateValues intake = new IntakeStateValues(values(IntakeState.class));
+    private final AngleStateValues angle = new AngleStateValues(values(AngleState.class));
 
     public Intake() {
         super(IntakeState.class, AngleState.class);
+        PowerManager.register(intakeMotor, PowerConstants.INTAKE_PRIORITY, PowerConstants.INTAKE_MIN_AMPS,
+                PowerConstants.INTAKE_MAX_AMPS);
+        PowerManager.register(intakeFeederMotor, PowerConstants.INTAKE_PRIORITY, PowerConstants.INTAKE_MIN_AMPS,
+                PowerConstants.INTAKE_MAX_AMPS);
+        PowerManager.register(intakeAngleMotor, PowerConstants.ANGLE_PRIORITY, PowerConstants.ANGLE_MIN_AMPS,
+                PowerConstants.ANGLE_MAX_AMPS);
     }
 
     protected void updateMotors() {
-        intakeMotor.set(getState(IntakeState.class).intakeSpeed);
-        intakeFeederMotor.set(getState(IntakeState.class).feederSpeed);
-        intakeAngleMotor.setReference(getState(AngleState.class).position);
+        intakeMotor.set(intake.intakeSpeed());
+        intakeFeederMotor.set(intake.feederSpeed());
+        intakeAngleMotor.setReference(angle.position());
     }
 }
@@ -1,28 +1,43 @@
 package frc.robot.subsystems;
 
 import frc.lib.motor.Motor;
-import frc.lib.subsystem.Subsystem;
+import frc.lib.motor.Motor.Usage;
+import frc.lib.motor.PowerManager;
+import frc.lib.subsystem.DoubleSubsystem;
+import frc.robot.AngleStateValues;
+import frc.robot.Constants.PowerConstants;
 import frc.robot.Constants.ShooterConstants;
 import frc.robot.Constants.ShooterConstants.AngleState;
 import frc.robot.Constants.ShooterConstants.ShooterState;
+import frc.robot.ShooterStateValues;
 
-public class Shooter extends Subsystem<Double> {
-    private Motor shooterTopMotor = Motor.neo(ShooterConstants.SHOOTER_MOTOR_UP_ID);
-    private Motor shooterBottomMotor = Motor.neo(ShooterConstants.SHOOTER_MOTOR_DOWN_ID).invert();
-    private Motor shooterAngleMotor = Motor.neo(ShooterConstants.ANGLE_MOTOR_ID).setPID(ShooterConstants.PID);
+public class Shooter extends DoubleSubsystem {
+    private Motor shooterTopMotor = Motor.neo(ShooterConstants.SHOOTER_MOTOR_UP_ID).setUsage(Usage.OPEN_LOOP);
+    private Motor shooterBottomMotor = Motor.neo(ShooterConstants.SHOOTER_MOTOR_DOWN_ID).invert()
+            .setUsage(Usage.OPEN_LOOP);
+    private Motor shooterAngleMotor = logMotor("angle",
+            Motor.neo(ShooterConstants.ANGLE_MOTOR_ID).setPID(ShooterConstants.PID).setUsage(Usage.POSITION));
+    private final AngleStateValues angle = new AngleStateValues(values(AngleState.class));
+    private final ShooterStateValues shooter = new ShooterStateValues(values(ShooterState.class));
 
     public Shooter() {
         super(AngleState.class, ShooterState.class);
+        PowerManager.register(shooterTopMotor, PowerConstants.SHOOTER_PRIORITY, PowerConstants.SHOOTER_MIN_AMPS,
+                PowerConstants.SHOOTER_MAX_AMPS);
+        PowerManager.register(shooterBottomMotor, PowerConstants.SHOOTER_PRIORITY, PowerConstants.SHOOTER_MIN_AMPS,
+                PowerConstants.SHOOTER_MAX_AMPS);
+        PowerManager.register(shooterAngleMotor, PowerConstants.ANGLE_PRIORITY, PowerConstants.ANGLE_MIN_AMPS,
+                PowerConstants.ANGLE_MAX_AMPS);
     }
 
     protected void updateMotors() {
-        shooterTopMotor.set(getState(ShooterState.class).topSpeed);
-        shooterBottomMotor.set(getState(ShooterState.class).bottomSpeed);
+        shooterTopMotor.set(shooter.topSpeed());
+        shooterBottomMotor.set(shooter.bottomSpeed());
         // Example of how setManualReference is used
-        shooterAngleMotor.setManualReference(getState(AngleState.class).position);
+        shooterAngleMotor.setManualReference(angle.position());
     }
 
     public boolean isAtTarget() {
-        return shooterAngleMotor.isAtTarget(getState(AngleState.class).position);
+        return shooterAngleMotor.isAtTarget(angle.position());
     }
 }
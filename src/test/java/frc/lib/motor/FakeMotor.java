@@ -0,0 +1,105 @@
+package frc.lib.motor;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import edu.wpi.first.wpilibj.motorcontrol.MotorController;
+import frc.lib.motor.Motor.Control;
+import frc.lib.motor.MotorConfig.Setting;
+
+/**
+ * A motor controller and adapter for tests, recording what it is sent and
+ * rejecting chosen settings.
+ */
+class FakeMotor implements MotorController, MotorAdapter {
+    final DeviceStats stats;
+    final List<MotorConfig> applies = new ArrayList<>();
+    final Set<Setting> rejected = EnumSet.noneOf(Setting.class);
+    double output;
+    double reference;
+    double position;
+    double velocity;
+    boolean inverted;
+    MotorAdapter leader;
+
+    FakeMotor(int id) {
+        this.stats = new DeviceStats("test", id, "Fake");
+    }
+
+    public void set(double speed) {
+        output = speed;
+    }
+
+    public void setVoltage(double voltage) {
+        output = voltage / 12.0;
+    }
+
+    public double get() {
+        return output;
+    }
+
+    public void setInverted(boolean isInverted) {
+        inverted = isInverted;
+    }
+
+    public boolean getInverted() {
+        return inverted;
+    }
+
+    public void disable() {
+        output = 0;
+    }
+
+    public void stopMotor() {
+        output = 0;
+    }
+
+    public void resetEncoder() {
+        position = 0;
+    }
+
+    public MotorConfig applyConfig(MotorConfig changes) {
+        applies.add(new MotorConfig().merge(changes));
+        MotorConfig applied = new MotorConfig();
+        for (Setting setting : Setting.values()) {
+            if (changes.has(setting) && !rejected.contains(setting)) {
+                applied.set(setting, changes.get(setting));
+            }
+        }
+        return applied;
+    }
+
+    public void setReference(double reference, Control controlType, int slot, double feedforward) {
+        this.reference = reference + feedforward;
+    }
+
+    public double getPosition() {
+        return position;
+    }
+
+    public double getVelocity() {
+        return velocity;
+    }
+
+    public double getVoltage() {
+        return output * 12.0;
+    }
+
+    public boolean isInverted() {
+        return inverted;
+    }
+
+    public DeviceStats getStats() {
+        return stats;
+    }
+
+    public boolean canFollow(MotorAdapter leader) {
+        return leader instanceof FakeMotor;
+    }
+
+    public void follow(MotorAdapter leader, boolean opposed) {
+        this.leader = leader;
+    }
+}
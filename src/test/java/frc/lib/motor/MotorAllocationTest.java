@@ -0,0 +1,43 @@
+package frc.lib.motor;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.hal.HAL;
+import frc.lib.telemetry.AllocationBudget;
+
+class MotorAllocationTest {
+    private FakeMotor fake;
+    private Motor motor;
+    private double output;
+
+    @BeforeEach
+    void setUp() {
+        assertTrue(HAL.initialize(500, 0));
+        fake = new FakeMotor(10);
+        motor = Motor.custom(fake, fake);
+    }
+
+    @Test
+    @AllocationBudget(bytes = 0)
+    void setDoesNotAllocate() {
+        // Alternate so every call is sent rather than suppressed.
+        output = output == 0.5 ? -0.5 : 0.5;
+        motor.set(output);
+    }
+
+    @Test
+    @AllocationBudget(bytes = 0)
+    void repeatedSetDoesNotAllocate() {
+        motor.set(0.5);
+    }
+
+    @Test
+    @AllocationBudget(bytes = 0)
+    void setReferenceDoesNotAllocate() {
+        output++;
+        motor.setReference(output, Motor.Control.POSITION, 0, 0.1);
+    }
+}
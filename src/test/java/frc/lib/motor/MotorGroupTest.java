@@ -0,0 +1,45 @@
+package frc.lib.motor;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.hal.HAL;
+import frc.lib.replay.ReplayAdapter;
+
+class MotorGroupTest {
+    @BeforeEach
+    void setUp() {
+        assertTrue(HAL.initialize(500, 0));
+    }
+
+    @Test
+    void wrappedMotorsFollowInHardware() {
+        FakeMotor leaderFake = new FakeMotor(20);
+        FakeMotor memberFake = new FakeMotor(21);
+        Motor leader = Motor.custom(leaderFake, leaderFake).wrapAdapter(ReplayAdapter::new);
+        Motor member = Motor.custom(memberFake, memberFake).wrapAdapter(ReplayAdapter::new);
+
+        MotorGroup group = new MotorGroup(leader).add(member, true);
+
+        assertTrue(group.isHardwareFollower(member));
+        assertSame(leaderFake, memberFake.leader);
+    }
+
+    @Test
+    void otherRatiosAreFollowedInSoftware() {
+        FakeMotor leaderFake = new FakeMotor(22);
+        FakeMotor memberFake = new FakeMotor(23);
+        Motor leader = Motor.custom(leaderFake, leaderFake);
+        Motor member = Motor.custom(memberFake, memberFake);
+
+        MotorGroup group = new MotorGroup(leader).add(member, 0.5);
+        group.set(0.8);
+
+        assertFalse(group.isHardwareFollower(member));
+        assertTrue(Math.abs(memberFake.output - 0.4) < 1e-9);
+    }
+}
@@ -0,0 +1,140 @@
+package frc.lib.motor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.hal.HAL;
+import frc.lib.motor.MotorConfig.Setting;
+import frc.lib.util.PID;
+
+class MotorTest {
+    @BeforeEach
+    void setUp() {
+        assertTrue(HAL.initialize(500, 0));
+    }
+
+    @Test
+    void failedSettingsAreNotRecordedAsApplied() {
+        FakeMotor fake = new FakeMotor(1);
+        fake.rejected.add(Setting.SUPPLY_CURRENT_LIMIT);
+        Motor motor = Motor.custom(fake, fake);
+
+        motor.configure(m -> m.setCurrentLimit(40).setStatorCurrentLimit(80));
+
+        MotorConfig applied = motor.getAppliedConfig();
+        assertFalse(applied.has(Setting.SUPPLY_CURRENT_LIMIT));
+        assertEquals(80.0, applied.get(Setting.STATOR_CURRENT_LIMIT));
+    }
+
+    @Test
+    void failedSettingsAreSentAgain() {
+        FakeMotor fake = new FakeMotor(2);
+        fake.rejected.add(Setting.SUPPLY_CURRENT_LIMIT);
+        Motor motor = Motor.custom(fake, fake);
+        motor.setCurrentLimit(40);
+
+        fake.rejected.clear();
+        motor.setCurrentLimit(40);
+
+        assertEquals(2, fake.applies.size());
+        assertEquals(40.0, motor.getAppliedConfig().get(Setting.SUPPLY_CURRENT_LIMIT));
+        motor.setCurrentLimit(40);
+        assertEquals(2, fake.applies.size());
+    }
+
+    @Test
+    void controlThreadSendsHandedOverOutputs() {
+        FakeMotor fake = new FakeMotor(3);
+        Motor motor = Motor.custom(fake, fake).runOnControlThread(new ControlThread("test", 500));
+
+        motor.set(0.5);
+        assertEquals(0.0, fake.output);
+        motor.updateSoftwareLoop();
+        assertEquals(0.5, fake.output);
+
+        motor.setReference(2, Motor.Control.POSITION);
+        motor.updateSoftwareLoop();
+        assertEquals(2.0, fake.reference);
+    }
+
+    @Test
+    void stopIsNotUndoneByTheControlThread() {
+        FakeMotor fake = new FakeMotor(4);
+        Motor motor = Motor.custom(fake, fake).runOnControlThread(new ControlThread("test", 500));
+        motor.set(0.5);
+        motor.updateSoftwareLoop();
+
+        motor.stop();
+        motor.updateSoftwareLoop();
+        motor.updateSoftwareLoop();
+
+        assertEquals(0.0, fake.output);
+        assertTrue(Double.isNaN(motor.getLastOutput()));
+    }
+
+    @Test
+    void controlThreadKeepsRecalculatingManualReferences() {
+        FakeMotor fake = new FakeMotor(7);
+        Motor motor = Motor.custom(fake, fake).runOnControlThread(new ControlThread("test", 500));
+        motor.setPID(new PID(1, 0, 0));
+
+        motor.setManualReference(10, Motor.Control.POSITION);
+        motor.updateSoftwareLoop();
+        assertEquals(1.0, fake.output);
+        fake.position = 9.5;
+        motor.updateSoftwareLoop();
+        assertEquals(0.5, fake.output, 1e-9);
+        fake.position = 9.75;
+        motor.updateSoftwareLoop();
+        assertEquals(0.25, fake.output, 1e-9);
+
+        motor.setManualReference(2, Motor.Control.VELOCITY);
+        fake.velocity = 1.5;
+        motor.updateSoftwareLoop();
+        assertEquals(0.5, fake.output, 1e-9);
+        fake.velocity = 1.75;
+        motor.updateSoftwareLoop();
+        assertEquals(0.25, fake.output, 1e-9);
+    }
+
+    @Test
+    void otherThreadsReadTheControlThreadsReadings() {
+        FakeMotor fake = new FakeMotor(8);
+        Motor motor = Motor.custom(fake, fake).runOnControlThread(new ControlThread("test", 500));
+
+        fake.position = 3;
+        assertEquals(0.0, motor.getPosition());
+        motor.updateSoftwareLoop();
+        assertEquals(3.0, motor.getPosition());
+    }
+
+    @Test
+    void softwarePIDsBelongToTheControlThread() {
+        FakeMotor fake = new FakeMotor(5);
+        Motor motor = Motor.custom(fake, fake).runOnControlThread(new ControlThread("test", 500));
+
+        assertThrows(IllegalStateException.class, () -> motor.getSoftwarePID(Motor.Control.POSITION));
+    }
+
+    @Test
+    void dryRunOutputsAreNotCounted() {
+        FakeMotor fake = new FakeMotor(6);
+        Motor motor = Motor.custom(fake, fake);
+
+        motor.setDryRun(true);
+        motor.set(0.5);
+        motor.setReference(2, Motor.Control.POSITION);
+        motor.setDryRun(false);
+
+        assertEquals(0.0, fake.output);
+        assertEquals(0.0, fake.reference);
+        assertEquals(0, motor.getSentFrames());
+        assertEquals(0, motor.getSuppressedFrames());
+        assertEquals(0, fake.stats.getWrites());
+    }
+}
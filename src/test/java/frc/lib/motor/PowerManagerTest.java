@@ -0,0 +1,77 @@
+package frc.lib.motor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.simulation.BatterySim;
+import edu.wpi.first.wpilibj.simulation.RoboRioSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.lib.motor.MotorConfig.Setting;
+
+class PowerManagerTest {
+    private static final double BUDGET = 100;
+
+    private Motor high;
+    private Motor low;
+
+    @BeforeEach
+    void setUp() {
+        assertTrue(HAL.initialize(500, 0));
+        RoboRioSim.resetData();
+        SimHooks.pauseTiming();
+        PowerManager.removeAll();
+        PowerManager.start(BUDGET);
+
+        FakeMotor highFake = new FakeMotor(30);
+        FakeMotor lowFake = new FakeMotor(31);
+        high = Motor.custom(highFake, highFake);
+        low = Motor.custom(lowFake, lowFake);
+        PowerManager.register(high, 2, 20, 60);
+        PowerManager.register(low, 1, 20, 60);
+    }
+
+    @AfterEach
+    void tearDown() {
+        PowerManager.removeAll();
+        SimHooks.resumeTiming();
+    }
+
+    @Test
+    void registeringTakesOverTheLimit() {
+        assertEquals(60.0, PowerManager.getLimit(high));
+        assertEquals(60.0, high.getAppliedConfig().get(Setting.SUPPLY_CURRENT_LIMIT));
+    }
+
+    @Test
+    void batterySagCutsLowerPrioritiesFirst() {
+        // 200 A through the default battery model leaves 8 V, halfway into
+        // brownout, so half the budget is available.
+        RoboRioSim.setVInVoltage(BatterySim.calculateDefaultBatteryLoadedVoltage(200));
+        PowerManager.update();
+
+        assertEquals(30.0, PowerManager.getLimit(high));
+        assertEquals(20.0, PowerManager.getLimit(low));
+        assertEquals(30.0, high.getAppliedConfig().get(Setting.SUPPLY_CURRENT_LIMIT));
+        assertEquals(20.0, low.getAppliedConfig().get(Setting.SUPPLY_CURRENT_LIMIT));
+    }
+
+    @Test
+    void limitsAreRaisedAfterADelay() {
+        RoboRioSim.setVInVoltage(BatterySim.calculateDefaultBatteryLoadedVoltage(200));
+        PowerManager.update();
+
+        RoboRioSim.setVInVoltage(BatterySim.calculateDefaultBatteryLoadedVoltage(0));
+        PowerManager.update();
+        assertEquals(30.0, PowerManager.getLimit(high));
+
+        SimHooks.stepTiming(1);
+        PowerManager.update();
+        assertEquals(60.0, PowerManager.getLimit(high));
+        assertEquals(40.0, PowerManager.getLimit(low));
+    }
+}
@@ -0,0 +1,50 @@
+package frc.lib.motor.adapters;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.revrobotics.CANSparkLowLevel.MotorType;
+import com.revrobotics.CANSparkMax;
+
+import edu.wpi.first.hal.HAL;
+import frc.lib.motor.Motor;
+import frc.lib.replay.ReplayAdapter;
+
+class SparkSamplerTest {
+    @BeforeEach
+    void setUp() {
+        assertTrue(HAL.initialize(500, 0));
+    }
+
+    @Test
+    void samplesOnlyWhileRunning() {
+        CANSparkMax neo = new CANSparkMax(40, MotorType.kBrushless);
+        SparkBaseAdapter adapter = new SparkBaseAdapter(neo);
+        Motor motor = Motor.custom(neo, adapter);
+        SparkSampler sampler = new SparkSampler("test", 100);
+
+        assertTrue(sampler.add(motor));
+        assertFalse(adapter.isSampled());
+        sampler.start();
+        assertTrue(adapter.isSampled());
+        sampler.stop();
+        assertFalse(adapter.isSampled());
+        neo.close();
+    }
+
+    @Test
+    void samplesWrappedSparks() {
+        CANSparkMax neo = new CANSparkMax(41, MotorType.kBrushless);
+        SparkBaseAdapter adapter = new SparkBaseAdapter(neo);
+        Motor motor = Motor.custom(neo, adapter).wrapAdapter(ReplayAdapter::new);
+        SparkSampler sampler = new SparkSampler("test wrapped", 100).start();
+
+        assertTrue(sampler.add(motor));
+        assertTrue(adapter.isSampled());
+        sampler.stop();
+        neo.close();
+    }
+}
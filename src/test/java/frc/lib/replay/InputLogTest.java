@@ -0,0 +1,142 @@
+package frc.lib.replay;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import frc.lib.motor.Motor;
+import frc.lib.motor.adapters.SimMotorAdapter;
+import frc.lib.sim.SimHarness;
+
+class InputLogTest {
+    // An output that holds every write until released, like a stalled disk.
+    static class StalledOutput extends OutputStream {
+        final CountDownLatch release = new CountDownLatch(1);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        @Override
+        public void write(int b) throws IOException {
+            await();
+            bytes.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            await();
+            bytes.write(b, off, len);
+        }
+
+        private void await() throws IOException {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+        }
+    }
+
+    // Drives a motor from the controller, recording its inputs if given a file.
+    static class JoystickRobot extends TimedRobot {
+        private final File recording;
+        private Motor motor;
+
+        JoystickRobot(File recording) {
+            this.recording = recording;
+        }
+
+        @Override
+        public void robotInit() {
+            motor = Motor.simulated(SimMotorAdapter.kraken(1));
+            if (recording != null) {
+                InputLog.startRecording(recording, 0);
+            }
+        }
+
+        @Override
+        public void robotPeriodic() {
+            InputLog.beginLoop();
+            double speed = DriverStation.getStickAxis(0, 1);
+            motor.set(DriverStation.getStickButton(0, 1) ? speed : speed / 2);
+            InputLog.endLoop();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        assertTrue(HAL.initialize(500, 0));
+    }
+
+    @Test
+    void dropsFramesWhileEveryBufferIsFull() throws IOException {
+        StalledOutput output = new StalledOutput();
+        int loops = 50_000;
+        InputLog.startRecording(() -> output, 0);
+        try {
+            for (int i = 0; i < loops; i++) {
+                InputLog.beginLoop();
+                InputLog.endLoop();
+            }
+        } finally {
+            output.release.countDown();
+            InputLog.stopRecording();
+        }
+
+        assertTrue(InputLog.getDroppedFrames() > 0);
+        File file = File.createTempFile("inputs", ".rlog");
+        file.deleteOnExit();
+        Files.write(file.toPath(), output.bytes.toByteArray());
+        long frames = 0;
+        try (InputLog.Reader reader = InputLog.open(file)) {
+            while (reader.next()) {
+                frames++;
+            }
+        }
+        assertEquals(loops, frames + InputLog.getDroppedFrames());
+    }
+
+    @Test
+    void replaysRecordedControllerInput() throws IOException {
+        File file = File.createTempFile("inputs", ".rlog");
+        file.deleteOnExit();
+        try (SimHarness sim = new SimHarness(() -> new JoystickRobot(file))) {
+            // Connect the controller after recording starts, like a driver
+            // station that connects after robotInit.
+            DriverStationSim.setJoystickAxisCount(0, 2);
+            DriverStationSim.setJoystickButtonCount(0, 4);
+            for (int i = 1; i <= 10; i++) {
+                DriverStationSim.setJoystickAxis(0, 1, i / 10.0);
+                DriverStationSim.setJoystickButtons(0, i % 2);
+                DriverStationSim.notifyNewData();
+                sim.run(0.02);
+            }
+        } finally {
+            InputLog.stopRecording();
+        }
+
+        boolean sawInput = false;
+        try (InputLog.Reader reader = InputLog.open(file)) {
+            while (reader.next()) {
+                sawInput |= reader.frame.axisCount == 2 && reader.frame.axes[1] != 0;
+            }
+        }
+        assertTrue(sawInput);
+
+        ReplayRunner.Result result = ReplayRunner.run(() -> new JoystickRobot(null), file);
+        assertTrue(result.frames() > 0);
+        assertEquals(0, result.mismatches());
+    }
+}
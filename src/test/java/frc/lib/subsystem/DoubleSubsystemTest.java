@@ -0,0 +1,141 @@
+package frc.lib.subsystem;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.function.DoubleSupplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.hal.HAL;
+import frc.lib.telemetry.AllocationBudget;
+import frc.lib.util.DoubleMutable;
+
+class DoubleSubsystemTest {
+    enum TestState {
+        IDLE(0.0, 0.0),
+        RUNNING(1.0, 2.0);
+
+        public final double speed, position;
+
+        TestState(double speed, double position) {
+            this.speed = speed;
+            this.position = position;
+        }
+    }
+
+    static class TestSubsystem extends DoubleSubsystem {
+        final int speed = slot(TestState.class, "speed");
+        final int position = slot(TestState.class, "position");
+        double source;
+        double output;
+
+        TestSubsystem() {
+            super(TestState.class);
+            setHook(TestState.RUNNING, () -> source, position);
+        }
+
+        @Override
+        protected void updateMotors() {
+            output = getStateValue(TestState.class, speed) + getStateValue(TestState.class, position);
+        }
+    }
+
+    // Used by the allocation tests, whose bodies are run many times.
+    private DoubleMutable<TestState> values;
+    private int speedSlot;
+    private int positionSlot;
+    private TestSubsystem subsystem;
+
+    @BeforeEach
+    void setUp() {
+        assertTrue(HAL.initialize(500, 0));
+        values = new DoubleMutable<>(TestState.class);
+        speedSlot = values.slot("speed");
+        positionSlot = values.slot("position");
+        subsystem = new TestSubsystem();
+        subsystem.setState(TestState.RUNNING);
+    }
+
+    @Test
+    void slotsReadAndWrite() {
+        DoubleMutable<TestState> values = new DoubleMutable<>(TestState.class);
+        int speed = values.slot("speed");
+
+        values.setState(TestState.RUNNING);
+        assertEquals(1.0, values.get(speed));
+        values.set(speed, 3.0);
+        assertEquals(3.0, values.get(TestState.RUNNING, speed));
+        assertEquals(0.0, values.get(TestState.IDLE, speed));
+    }
+
+    @Test
+    @AllocationBudget(bytes = 0)
+    void slotAccessDoesNotAllocate() {
+        values.setState(values.getState() == TestState.IDLE ? TestState.RUNNING : TestState.IDLE);
+        values.set(speedSlot, values.get(positionSlot) + 1);
+        values.set(TestState.IDLE, positionSlot, values.get(TestState.RUNNING, speedSlot));
+    }
+
+    @Test
+    @AllocationBudget(bytes = 0)
+    void periodicDoesNotAllocate() {
+        subsystem.source++;
+        subsystem.periodic();
+        subsystem.modifyStateValue(TestState.class, subsystem.speed, subsystem.output);
+        assertEquals(subsystem.source, subsystem.getStateValue(TestState.class, subsystem.position));
+    }
+
+    @Test
+    void hooksRunAfterTheirDependencies() {
+        TestSubsystem subsystem = new TestSubsystem();
+        subsystem.setState(TestState.RUNNING);
+        DoubleSupplier doubled = () -> subsystem.getStateValue(TestState.class, subsystem.speed) * 2;
+        DoubleSubsystem.Hook<?> position = subsystem.setHook(TestState.RUNNING, doubled, subsystem.position);
+        DoubleSubsystem.Hook<?> speed = subsystem.setHook(TestState.RUNNING, () -> subsystem.source, subsystem.speed);
+        subsystem.setHook(TestState.RUNNING, doubled, subsystem.position, speed);
+
+        subsystem.source = 5;
+        subsystem.periodic();
+
+        assertEquals(10.0, subsystem.getStateValue(TestState.class, subsystem.position));
+        assertThrows(IllegalArgumentException.class,
+                () -> subsystem.setHook(TestState.RUNNING, () -> subsystem.source, subsystem.speed, position));
+    }
+
+    @Test
+    void hooksAreFirstEvaluatedByPeriodic() {
+        TestSubsystem subsystem = new TestSubsystem();
+        double[] notReady = null;
+        subsystem.setHook(TestState.IDLE, () -> notReady[0], subsystem.speed);
+
+        assertThrows(NullPointerException.class, subsystem::periodic);
+    }
+
+    @Test
+    void fixedHooksAreWrittenImmediately() {
+        TestSubsystem subsystem = new TestSubsystem();
+        subsystem.setState(TestState.IDLE);
+        subsystem.setHook(TestState.IDLE, 4.0, subsystem.speed);
+
+        assertEquals(4.0, subsystem.getStateValue(TestState.class, subsystem.speed));
+    }
+
+    @Test
+    void warmUpDoesNotPublish() {
+        int[] published = new int[1];
+        TestSubsystem subsystem = new TestSubsystem() {
+            @Override
+            protected void updateSmartDashboard() {
+                published[0]++;
+            }
+        };
+
+        subsystem.warmUp();
+        assertEquals(0, published[0]);
+        subsystem.periodic();
+        assertEquals(1, published[0]);
+    }
+}
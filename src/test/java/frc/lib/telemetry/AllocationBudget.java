@@ -0,0 +1,35 @@
+package frc.lib.telemetry;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Fails a test if its method allocates more than a budget per run, e.g. to
+ * check that a subsystem's periodic() or a Motor call doesn't allocate, so
+ * allocations that were removed from the loop can't quietly come back. For
+ * example:
+ *
+ * <pre>{@code
+ * @Test
+ * @AllocationBudget(bytes = 0)
+ * void periodicDoesNotAllocate() {
+ *     intake.periodic();
+ * }
+ * }</pre>
+ *
+ * The method is run many times by {@link AllocationBudgetExtension}, so it
+ * should hold only the code being measured, with setup in a BeforeEach
+ * method.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AllocationBudget {
+    /**
+     * The most bytes allowed per run, on average.
+     *
+     * @return The budget, in bytes.
+     */
+    long bytes();
+}
@@ -0,0 +1,69 @@
+package frc.lib.telemetry;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Checks the {@link AllocationBudget} of test methods. Registered for every
+ * test through extension autodetection; methods without a budget run as usual.
+ * <p>
+ * A budgeted method runs once normally, then enough times for lazy
+ * initialization and JIT compilation (including escape analysis) to settle,
+ * then the bytes allocated by the test thread are averaged over many more
+ * runs.
+ */
+public class AllocationBudgetExtension implements InvocationInterceptor {
+    private static final int WARMUP_RUNS = 20_000;
+    private static final int MEASURED_RUNS = 10_000;
+
+    private static final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Override
+    public void interceptTestMethod(Invocation<Void> invocation, ReflectiveInvocationContext<Method> invocationContext,
+            ExtensionContext extensionContext) throws Throwable {
+        Method method = invocationContext.getExecutable();
+        AllocationBudget budget = method.getAnnotation(AllocationBudget.class);
+        if (budget == null) {
+            invocation.proceed();
+            return;
+        }
+        if (method.getParameterCount() != 0) {
+            throw new IllegalStateException("Budgeted test " + method.getName() + " must not take parameters");
+        }
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            throw new UnsupportedOperationException("Thread allocation measurement is not supported by this JVM");
+        }
+
+        // Run through JUnit first, so ordinary failures are reported as usual.
+        invocation.proceed();
+
+        method.setAccessible(true);
+        MethodHandle test = MethodHandles.lookup().unreflect(method)
+                .bindTo(invocationContext.getTarget().orElseThrow())
+                .asType(MethodType.methodType(void.class));
+        threads.setThreadAllocatedMemoryEnabled(true);
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            test.invokeExact();
+        }
+        long start = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            test.invokeExact();
+        }
+        double bytes = (threads.getCurrentThreadAllocatedBytes() - start) / (double) MEASURED_RUNS;
+
+        // Allow for stray allocations (e.g. by the JIT) spread over the runs.
+        if (bytes >= budget.bytes() + 1) {
+            throw new AssertionError(String.format("%s allocates %.1f bytes per run, over its budget of %d",
+                    method.getName(), bytes, budget.bytes()));
+        }
+    }
+}
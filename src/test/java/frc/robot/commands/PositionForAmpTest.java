@@ -0,0 +1,46 @@
+package frc.robot.commands;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.lib.sim.SimHarness;
+import frc.robot.Constants.DeflectorConstants.DeflectorState;
+import frc.robot.Constants.ShooterConstants.AngleState;
+import frc.robot.Robot;
+import frc.robot.subsystems.Deflector;
+import frc.robot.subsystems.Shooter;
+
+class PositionForAmpTest {
+    // The robot with the subsystems the command needs.
+    static class TestRobot extends Robot {
+        Deflector deflector;
+        Shooter shooter;
+
+        @Override
+        public void robotInit() {
+            super.robotInit();
+            deflector = new Deflector();
+            shooter = new Shooter();
+        }
+    }
+
+    @Test
+    void finishesWithEverythingUp() {
+        try (SimHarness sim = new SimHarness(TestRobot::new)) {
+            TestRobot robot = (TestRobot) sim.getRobot();
+            sim.enable(SimHarness.Mode.TELEOP).run(0.1);
+
+            Command command = new PositionForAmp(robot.deflector, robot.shooter);
+            command.schedule();
+
+            assertTrue(sim.runUntil(() -> !command.isScheduled(), 5));
+            assertEquals(DeflectorState.UP, robot.deflector.getState(DeflectorState.class));
+            assertEquals(AngleState.UP, robot.shooter.getState(AngleState.class));
+            assertTrue(robot.deflector.isAtTarget());
+            assertTrue(robot.shooter.isAtTarget());
+        }
+    }
+}